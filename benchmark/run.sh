@@ -0,0 +1,27 @@
+#!/bin/sh
+# Builds and runs the JMH benchmarks headlessly:
+#   benchmark/run.sh [JMH options]      e.g. benchmark/run.sh HammingCoderBenchmark -p dataBits=1024
+# JMH_CLASSPATH must list jmh-core, jmh-generator-annprocess and their dependencies (jopt-simple,
+# commons-math3); when unset they are looked up in the local Maven repository.
+# Throughput in bits/s is reported by the "bits" counter, the allocation rate by the gc profiler.
+# The Vector API module is added so that the vectorized parity kernel is used; compare with the scalar
+# kernel by passing -jvmArgsAppend -Dcode.parityKernel=scalar.
+set -e
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT="$ROOT/benchmark/out"
+
+if [ -z "$JMH_CLASSPATH" ]; then
+    M2="${M2_REPO:-$HOME/.m2/repository}"
+    JMH_CLASSPATH=$(find "$M2/org/openjdk/jmh" "$M2/net/sf/jopt-simple" "$M2/org/apache/commons/commons-math3" \
+        -name '*.jar' ! -name '*-sources.jar' 2>/dev/null | tr '\n' ':')
+fi
+if [ -z "$JMH_CLASSPATH" ]; then
+    echo "JMH not found: set JMH_CLASSPATH or M2_REPO" >&2
+    exit 2
+fi
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+javac --add-modules jdk.incubator.vector -d "$OUT" -cp "$JMH_CLASSPATH" \
+    $(find "$ROOT/coder/src" "$ROOT/benchmark/src" -name '*.java' ! -name module-info.java)
+java -cp "$OUT:$JMH_CLASSPATH" org.openjdk.jmh.Main -prof gc -jvmArgsPrepend "--add-modules jdk.incubator.vector" "$@"
@@ -0,0 +1,35 @@
+package bench;
+
+import java.util.Random;
+
+/**
+ * Deterministic inputs shared by the benchmarks.
+ */
+final class BenchmarkInputs {
+
+    private BenchmarkInputs(){
+    }
+
+    /**
+     * @return a random bit sequence of the given length in binary form
+     */
+    static String randomBits(int length, long seed){
+        Random rand = new Random(seed);
+        char[] bits = new char[length];
+        for(int i = 0; i<length; i++){
+            bits[i] = rand.nextBoolean() ? '1' : '0';
+        }
+        return new String(bits);
+    }
+
+    /**
+     * @return encoded with the bits at the given indices inverted
+     */
+    static String flipBits(String encoded, int... indices){
+        char[] bits = encoded.toCharArray();
+        for(int index : indices){
+            bits[index] = bits[index]=='1' ? '0' : '1';
+        }
+        return new String(bits);
+    }
+}
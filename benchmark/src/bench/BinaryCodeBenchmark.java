@@ -0,0 +1,53 @@
+package bench;
+
+import code.BinaryCode;
+import exception.InvalidInputFormatException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of parsing and formatting BinaryCode words in binary form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BinaryCodeBenchmark {
+
+    @Param({"8", "1024", "65536", "1048576", "134217728"})
+    public int bits;
+
+    private String myContent;
+    private BinaryCode myCode;
+
+    @Setup
+    public void setUp() throws InvalidInputFormatException {
+        myContent = BenchmarkInputs.randomBits(bits, bits);
+        myCode = new BinaryCode(myContent);
+    }
+
+    @Benchmark
+    public BinaryCode parse(BitCounter counter) throws InvalidInputFormatException {
+        counter.bits += bits;
+        return new BinaryCode(myContent);
+    }
+
+    @Benchmark
+    public String format(BitCounter counter){
+        counter.bits += bits;
+        return myCode.toString();
+    }
+}
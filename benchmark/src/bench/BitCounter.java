@@ -0,0 +1,23 @@
+package bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the payload bits processed by a benchmark so that JMH reports throughput in bits per second
+ * next to the operation rate.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class BitCounter {
+
+    public long bits;
+
+    @Setup(Level.Iteration)
+    public void reset(){
+        bits = 0;
+    }
+}
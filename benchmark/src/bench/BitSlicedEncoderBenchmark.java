@@ -0,0 +1,71 @@
+package bench;
+
+import code.BitSlicedEncoder;
+import code.HammingCoder;
+import exception.InvalidInputFormatException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a batch of small records with BitSlicedEncoder against one HammingCoder call per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BitSlicedEncoderBenchmark {
+
+    private static final int RECORDS = 4096;
+
+    @Param({"8", "26", "57"})
+    public int dataBits;
+
+    private BitSlicedEncoder myEncoder;
+    private long[] myData;
+    private long[] myCode;
+    private String[] myRecords;
+
+    @Setup
+    public void setUp(){
+        myEncoder = new BitSlicedEncoder(dataBits);
+        myData = new long[RECORDS];
+        myCode = new long[RECORDS];
+        myRecords = new String[RECORDS];
+        Random rand = new Random(dataBits);
+        for(int i = 0; i<RECORDS; i++){
+            myData[i] = rand.nextLong();
+            myRecords[i] = BenchmarkInputs.randomBits(dataBits, myData[i]);
+        }
+    }
+
+    @Benchmark
+    public long[] bitSliced(BitCounter counter){
+        counter.bits += (long) RECORDS * dataBits;
+        myEncoder.encode(myData, 0, myCode, 0, RECORDS);
+        return myCode;
+    }
+
+    @Benchmark
+    public int perRecord(BitCounter counter) throws InvalidInputFormatException {
+        counter.bits += (long) RECORDS * dataBits;
+        int length = 0;
+        for(String record : myRecords){
+            length += HammingCoder.getInstance().encode(record).length();
+        }
+        return length;
+    }
+}
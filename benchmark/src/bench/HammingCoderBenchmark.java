@@ -0,0 +1,103 @@
+package bench;
+
+import code.HammingCoder;
+import exception.DoubleBitErrorException;
+import exception.InvalidInputFormatException;
+import exception.SingleBitErrorException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of HammingCoder on words from a single byte up to over 100 Mbit, for intact words and for
+ * words with a single- or double-bit corruption. Only decode and validateCode read the Corrupted state, so that
+ * the corruption parameter does not multiply the encode runs. Throughput in bits per second is reported by the
+ * bits counter; run with -prof gc for the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HammingCoderBenchmark {
+
+    public enum Corruption {
+        NONE,
+        SINGLE,
+        DOUBLE
+    }
+
+    @Param({"8", "1024", "65536", "1048576", "134217728"})
+    public int dataBits;
+
+    private final HammingCoder myCoder = HammingCoder.getInstance();
+    private String myData;
+
+    @Setup
+    public void setUp(){
+        myData = BenchmarkInputs.randomBits(dataBits, dataBits);
+    }
+
+    /**
+     * Encoded benchmark data, corrupted as requested.
+     */
+    @State(Scope.Benchmark)
+    public static class Corrupted {
+
+        @Param({"NONE", "SINGLE", "DOUBLE"})
+        public Corruption corruption;
+
+        private String myEncoded;
+
+        @Setup
+        public void setUp(HammingCoderBenchmark benchmark) throws InvalidInputFormatException {
+            String encoded = benchmark.myCoder.encode(benchmark.myData);
+            switch(corruption){
+                case SINGLE:
+                    myEncoded = BenchmarkInputs.flipBits(encoded, encoded.length()/2);
+                    break;
+                case DOUBLE:
+                    myEncoded = BenchmarkInputs.flipBits(encoded, 1, encoded.length()-1);
+                    break;
+                default:
+                    myEncoded = encoded;
+            }
+        }
+    }
+
+    @Benchmark
+    public String encode(BitCounter counter) throws InvalidInputFormatException {
+        counter.bits += dataBits;
+        return myCoder.encode(myData);
+    }
+
+    @Benchmark
+    public String decode(Corrupted corrupted, BitCounter counter) throws InvalidInputFormatException {
+        counter.bits += dataBits;
+        return myCoder.decode(corrupted.myEncoded);
+    }
+
+    @Benchmark
+    public int validateCode(Corrupted corrupted, BitCounter counter) throws InvalidInputFormatException {
+        counter.bits += dataBits;
+        try {
+            myCoder.validateCode(corrupted.myEncoded);
+            return -1;
+        }catch (SingleBitErrorException e){
+            return e.getErrorBitIndex();
+        }catch (DoubleBitErrorException e){
+            return -2;
+        }
+    }
+}
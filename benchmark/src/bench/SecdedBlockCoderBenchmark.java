@@ -0,0 +1,127 @@
+package bench;
+
+import code.SecdedBlockCoder;
+import exception.DoubleBitErrorException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the byte-oriented bulk operations of SecdedBlockCoder. Decoding and correcting read a separate
+ * Corrupted state, so that the corruption parameter does not multiply the encode runs. The corruption, if any,
+ * sits in the middle block and is re-applied by every correct invocation, since correcting repairs the buffer
+ * in place. Decoding stops at a DOUBLE corruption, so only the bits decoded before it are counted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SecdedBlockCoderBenchmark {
+
+    @Param({"64", "128"})
+    public int blockDataBits;
+
+    @Param({"8", "1024", "65536", "1048576", "134217728"})
+    public int dataBits;
+
+    @Param({"MASK", "TABLE"})
+    public SecdedBlockCoder.Engine engine;
+
+    private SecdedBlockCoder myCoder;
+    private ByteBuffer myData;
+    private ByteBuffer myCode;
+
+    @Setup
+    public void setUp(){
+        myCoder = new SecdedBlockCoder(blockDataBits, engine);
+        int numBlocks = Math.max(1, dataBits / blockDataBits);
+        byte[] data = new byte[numBlocks * myCoder.getDataBytes()];
+        new Random(dataBits).nextBytes(data);
+        myData = ByteBuffer.wrap(data);
+        myCode = ByteBuffer.allocate(numBlocks * myCoder.getCodeBytes());
+    }
+
+    /**
+     * Encoded copy of the benchmark data, corrupted as requested.
+     */
+    @State(Scope.Benchmark)
+    public static class Corrupted {
+
+        @Param({"NONE", "SINGLE", "DOUBLE"})
+        public HammingCoderBenchmark.Corruption corruption;
+
+        private ByteBuffer myCode;
+        private ByteBuffer myDecoded;
+        private int myCorruptByte;
+
+        @Setup
+        public void setUp(SecdedBlockCoderBenchmark benchmark){
+            SecdedBlockCoder coder = benchmark.myCoder;
+            myCode = ByteBuffer.allocate(benchmark.myCode.capacity());
+            myDecoded = ByteBuffer.allocate(benchmark.myData.capacity());
+            coder.encodeBlocks(benchmark.myData.duplicate(), myCode.duplicate());
+            myCorruptByte = myCode.capacity() / coder.getCodeBytes() / 2 * coder.getCodeBytes();
+            corrupt();
+        }
+
+        private void corrupt(){
+            switch(corruption){
+                case SINGLE:
+                    myCode.put(myCorruptByte, (byte) (myCode.get(myCorruptByte) ^ 0x10));
+                    break;
+                case DOUBLE:
+                    myCode.put(myCorruptByte, (byte) (myCode.get(myCorruptByte) ^ 0x11));
+                    break;
+                default:
+            }
+        }
+    }
+
+    @Benchmark
+    public int encode(BitCounter counter){
+        counter.bits += myData.capacity() * 8L;
+        return myCoder.encodeBlocks(myData.duplicate(), myCode.duplicate());
+    }
+
+    @Benchmark
+    public int decode(Corrupted corrupted, BitCounter counter){
+        ByteBuffer decoded = corrupted.myDecoded.duplicate();
+        try {
+            return myCoder.decodeBlocks(corrupted.myCode.duplicate(), decoded);
+        }catch (DoubleBitErrorException e){
+            return -2;
+        }finally {
+            // the position stops at the start of an uncorrectable block
+            counter.bits += decoded.position() * 8L;
+        }
+    }
+
+    @Benchmark
+    public int correct(Corrupted corrupted, BitCounter counter){
+        counter.bits += myData.capacity() * 8L;
+        int corrected;
+        try {
+            corrected = myCoder.correctBlocks(corrupted.myCode.duplicate());
+        }catch (DoubleBitErrorException e){
+            corrected = -2;
+        }
+        if(corrupted.corruption == HammingCoderBenchmark.Corruption.SINGLE){
+            corrupted.corrupt();
+        }
+        return corrected;
+    }
+}
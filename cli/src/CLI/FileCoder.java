@@ -0,0 +1,241 @@
+package CLI;
+
+import code.ParallelBlockCoder;
+import code.SecdedBlockCoder;
+import exception.DoubleBitErrorException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Headless command-line entry point that encodes, decodes and corrects files with (72,64) SECDED blocks.
+ * Files are processed through memory-mapped windows, so the heap only holds a block or two at a time,
+ * and the blocks of each window are spread over all cores.
+ * Encoded files use the same layout as code.SecdedEncoder: the encoded blocks followed by a trailer block.
+ */
+public class FileCoder {
+
+    // number of blocks mapped at a time
+    static final int DEFAULT_WINDOW_BLOCKS = 1 << 22;
+
+    private static final String USAGE =
+            "Usage: FileCoder encode <input> <output>\n" +
+            "       FileCoder decode <input> <output>\n" +
+            "       FileCoder correct <file>";
+
+    private final SecdedBlockCoder coder;
+    private final ParallelBlockCoder parallelCoder;
+    private final int dataBytes;
+    private final int codeBytes;
+    private final int windowBlocks;
+
+    public FileCoder(SecdedBlockCoder coder){
+        this(coder, DEFAULT_WINDOW_BLOCKS);
+    }
+
+    /**
+     * @param coder block coder; must use a whole number of data bytes per block
+     * @param windowBlocks number of blocks mapped at a time
+     */
+    public FileCoder(SecdedBlockCoder coder, int windowBlocks){
+        if(windowBlocks < 1){
+            throw new IllegalArgumentException("Window must hold at least one block: " + windowBlocks);
+        }
+        this.coder = coder;
+        this.parallelCoder = new ParallelBlockCoder(coder);
+        this.dataBytes = coder.getDataBytes();
+        this.codeBytes = coder.getCodeBytes();
+        this.windowBlocks = windowBlocks;
+    }
+
+    public static void main(String[] args){
+        FileCoder fileCoder = new FileCoder(new SecdedBlockCoder(SecdedBlockCoder.DATA_BITS_64));
+        try {
+            if(args.length == 3 && args[0].equals("encode")){
+                fileCoder.encode(Paths.get(args[1]), Paths.get(args[2]));
+            }else if(args.length == 3 && args[0].equals("decode")){
+                long corrected = fileCoder.decode(Paths.get(args[1]), Paths.get(args[2]));
+                System.out.println("Corrected single-bit corruption in " + corrected + " blocks");
+            }else if(args.length == 2 && args[0].equals("correct")){
+                long corrected = fileCoder.correct(Paths.get(args[1]));
+                System.out.println("Corrected single-bit corruption in " + corrected + " blocks");
+            }else{
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+        }catch (DoubleBitErrorException e){
+            System.err.println("Double-bit corruption detected in block " + e.getBlockIndex());
+            System.exit(1);
+        }catch (IOException e){
+            System.err.println("File processing failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Encodes input into output block by block, followed by a trailer block holding the byte count of the last data block.
+     */
+    public void encode(Path input, Path output) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)){
+            long size = in.size();
+            long wholeBlocks = size / dataBytes;
+            for(long block = 0; block<wholeBlocks; block += windowBlocks){
+                int numBlocks = (int) Math.min(windowBlocks, wholeBlocks - block);
+                MappedByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, block * dataBytes, (long) numBlocks * dataBytes);
+                MappedByteBuffer code = out.map(FileChannel.MapMode.READ_WRITE, block * codeBytes, (long) numBlocks * codeBytes);
+                parallelCoder.encodeBlocks(data, code);
+            }
+
+            // the partial last block and the trailer block are padded on the heap
+            ByteBuffer tail = ByteBuffer.allocate(2 * dataBytes);
+            int lastBlockBytes = (int) (size - wholeBlocks * dataBytes);
+            tail.limit(lastBlockBytes);
+            readFully(in, tail, wholeBlocks * dataBytes);
+            tail.limit(tail.capacity());
+            if(lastBlockBytes > 0){
+                tail.position(dataBytes);
+            }else if(wholeBlocks > 0){
+                lastBlockBytes = dataBytes;
+            }
+            for(int i = 0; i<Math.min(4, dataBytes); i++){
+                tail.put(tail.position() + i, (byte) (lastBlockBytes >>> (i << 3)));
+            }
+            tail.position(tail.position() + dataBytes).flip();
+            ByteBuffer code = ByteBuffer.allocate(2 * codeBytes);
+            coder.encodeBlocks(tail, code);
+            code.flip();
+            long offset = wholeBlocks * codeBytes;
+            while(code.hasRemaining()){
+                offset += out.write(code, offset);
+            }
+        }
+    }
+
+    /**
+     * Decodes input into output, correcting one corrupted bit per block.
+     * @return number of corrected blocks
+     * @throws DoubleBitErrorException if a block holds an uncorrectable corruption, giving its index in the file
+     */
+    public long decode(Path input, Path output) throws IOException, DoubleBitErrorException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)){
+            long size = in.size();
+            if(size == 0 || size % codeBytes != 0){
+                throw new IOException("Encoded file size " + size + " is not a whole number of blocks");
+            }
+            long numBlocks = size / codeBytes;
+            long corrected = 0;
+
+            // trailer block first, to know how much of the last data block is payload
+            ByteBuffer trailerCode = ByteBuffer.allocate(codeBytes);
+            readFully(in, trailerCode, size - codeBytes);
+            trailerCode.flip();
+            ByteBuffer trailer = ByteBuffer.allocate(dataBytes);
+            corrected += decodeBlocks(trailerCode, trailer, numBlocks - 1);
+            int lastBlockBytes = 0;
+            for(int i = 0; i<Math.min(4, dataBytes); i++){
+                lastBlockBytes |= (trailer.get(i) & 0xFF) << (i << 3);
+            }
+            long numDataBlocks = numBlocks - 1;
+            if(numDataBlocks > 0 ? lastBlockBytes < 1 || lastBlockBytes > dataBytes : lastBlockBytes != 0){
+                throw new IOException("Invalid trailer block: " + lastBlockBytes + " bytes in last block");
+            }
+            if(numDataBlocks == 0){
+                return corrected;
+            }
+
+            long wholeBlocks = numDataBlocks - 1;
+            for(long block = 0; block<wholeBlocks; block += windowBlocks){
+                int count = (int) Math.min(windowBlocks, wholeBlocks - block);
+                MappedByteBuffer code = in.map(FileChannel.MapMode.READ_ONLY, block * codeBytes, (long) count * codeBytes);
+                MappedByteBuffer data = out.map(FileChannel.MapMode.READ_WRITE, block * dataBytes, (long) count * dataBytes);
+                try {
+                    corrected += parallelCoder.decodeBlocks(code, data);
+                }catch (DoubleBitErrorException e){
+                    throw new DoubleBitErrorException(block + e.getBlockIndex());
+                }
+            }
+
+            ByteBuffer lastCode = ByteBuffer.allocate(codeBytes);
+            readFully(in, lastCode, wholeBlocks * codeBytes);
+            lastCode.flip();
+            ByteBuffer lastData = ByteBuffer.allocate(dataBytes);
+            corrected += decodeBlocks(lastCode, lastData, wholeBlocks);
+            lastData.flip().limit(lastBlockBytes);
+            long offset = wholeBlocks * dataBytes;
+            while(lastData.hasRemaining()){
+                offset += out.write(lastData, offset);
+            }
+            return corrected;
+        }
+    }
+
+    /**
+     * Repairs single-bit corruptions of an encoded file in place.
+     * @return number of corrected blocks
+     * @throws DoubleBitErrorException if at least one block holds an uncorrectable corruption, giving the index
+     *          of the first one in the file; all correctable blocks have been repaired when it is thrown
+     */
+    public long correct(Path file) throws IOException, DoubleBitErrorException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)){
+            long size = channel.size();
+            if(size % codeBytes != 0){
+                throw new IOException("Encoded file size " + size + " is not a whole number of blocks");
+            }
+            long numBlocks = size / codeBytes;
+            long corrected = 0;
+            long firstUncorrectable = -1;
+            for(long block = 0; block<numBlocks; block += windowBlocks){
+                int count = (int) Math.min(windowBlocks, numBlocks - block);
+                MappedByteBuffer code = channel.map(FileChannel.MapMode.READ_WRITE, block * codeBytes, (long) count * codeBytes);
+                try {
+                    corrected += parallelCoder.scrubBlocks(code);
+                }catch (DoubleBitErrorException e){
+                    if(firstUncorrectable < 0){
+                        firstUncorrectable = block + e.getBlockIndex();
+                    }
+                }
+                code.force();
+            }
+            if(firstUncorrectable >= 0){
+                throw new DoubleBitErrorException(firstUncorrectable);
+            }
+            return corrected;
+        }
+    }
+
+    /**
+     * Fills the remaining bytes of buffer from channel starting at position, however many reads it takes.
+     * @throws EOFException if the channel ends first
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()){
+            int read = channel.read(buffer, position);
+            if(read < 0){
+                throw new EOFException("File ended at byte " + position);
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Decodes blocks read on the heap, the first of them being block firstBlock of the file.
+     * @throws DoubleBitErrorException giving the index of the uncorrectable block in the file
+     */
+    private int decodeBlocks(ByteBuffer code, ByteBuffer data, long firstBlock) throws DoubleBitErrorException {
+        try {
+            return coder.decodeBlocks(code, data);
+        }catch (DoubleBitErrorException e){
+            throw new DoubleBitErrorException(firstBlock + e.getBlockIndex());
+        }
+    }
+}
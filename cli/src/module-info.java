@@ -0,0 +1,5 @@
+module cli {
+    requires transitive coder;
+
+    exports CLI;
+}
@@ -0,0 +1,114 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import CLI.FileCoder;
+import code.SecdedBlockCoder;
+import exception.DoubleBitErrorException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class FileCoderTest {
+
+    private SecdedBlockCoder coder = new SecdedBlockCoder(SecdedBlockCoder.DATA_BITS_64);
+    // small windows so that a few kilobytes span several of them
+    private FileCoder fileCoder = new FileCoder(coder, 16);
+    private Path input;
+    private Path encoded;
+    private Path decoded;
+
+    @Before
+    public void setUp() throws IOException {
+        input = Files.createTempFile("input", ".bin");
+        encoded = Files.createTempFile("encoded", ".ecc");
+        decoded = Files.createTempFile("decoded", ".bin");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(encoded);
+        Files.deleteIfExists(decoded);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Random rand = new Random();
+        // empty, sub-block, whole blocks and several windows with and without a partial last block
+        for (int length : new int[]{0, 1, 7, 8, 9, 16, 127, 128, 129, 1000, 16 * 8 * 5 + 3}){
+            byte[] data = new byte[length];
+            rand.nextBytes(data);
+            Files.write(input, data);
+            fileCoder.encode(input, encoded);
+            long blocks = (length + 7) / 8 + 1;
+            Assert.assertEquals(blocks * coder.getCodeBytes(), Files.size(encoded));
+            Assert.assertEquals(0, fileCoder.decode(encoded, decoded));
+            Assert.assertArrayEquals(data, Files.readAllBytes(decoded));
+        }
+    }
+
+    @Test
+    public void testCorrect() throws Exception {
+        Random rand = new Random();
+        byte[] data = new byte[1000];
+        rand.nextBytes(data);
+        Files.write(input, data);
+        fileCoder.encode(input, encoded);
+        byte[] original = Files.readAllBytes(encoded);
+        byte[] code = original.clone();
+        int numBlocks = code.length / coder.getCodeBytes();
+        for (int block = 0; block<numBlocks; block += 3){
+            int bit = rand.nextInt(coder.getCodeBits());
+            code[block * coder.getCodeBytes() + bit / 8] ^= 1 << (bit % 8);
+        }
+        Files.write(encoded, code);
+
+        Assert.assertEquals((numBlocks + 2) / 3, fileCoder.correct(encoded));
+        Assert.assertArrayEquals(original, Files.readAllBytes(encoded));
+        Assert.assertEquals(0, fileCoder.correct(encoded));
+        fileCoder.decode(encoded, decoded);
+        Assert.assertArrayEquals(data, Files.readAllBytes(decoded));
+    }
+
+    @Test
+    public void testCorrectDoubleBitError() throws Exception {
+        Files.write(input, new byte[100]);
+        fileCoder.encode(input, encoded);
+        byte[] code = Files.readAllBytes(encoded);
+        code[2 * coder.getCodeBytes()] ^= 0x11;
+        code[5 * coder.getCodeBytes()] ^= 0x04;
+        Files.write(encoded, code);
+        try {
+            fileCoder.correct(encoded);
+            Assert.fail();
+        }catch (DoubleBitErrorException e){
+            Assert.assertEquals(2, e.getBlockIndex());
+        }
+        code[5 * coder.getCodeBytes()] ^= 0x04;
+        Assert.assertArrayEquals(code, Files.readAllBytes(encoded));
+    }
+
+    @Test
+    public void testDecodeReportsUncorrectableBlock() throws Exception {
+        Files.write(input, new byte[1000]);
+        fileCoder.encode(input, encoded);
+        byte[] code = Files.readAllBytes(encoded);
+        int numBlocks = code.length / coder.getCodeBytes();
+        // in the third window, and in the last data block and the trailer block decoded on the heap
+        for (int block : new int[]{37, numBlocks - 2, numBlocks - 1}){
+            byte[] corrupted = code.clone();
+            corrupted[block * coder.getCodeBytes() + 1] ^= 0x11;
+            Files.write(encoded, corrupted);
+            try {
+                fileCoder.decode(encoded, decoded);
+                Assert.fail();
+            }catch (DoubleBitErrorException e){
+                Assert.assertEquals(block, e.getBlockIndex());
+            }
+        }
+    }
+}
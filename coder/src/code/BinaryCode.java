@@ -2,54 +2,217 @@ package code;
 
 import exception.InvalidInputFormatException;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Wrapper class for memory word to encode/decode.
+ * Bits are packed into a long[] bit-vector: bit i lives in word i/64 at bit position i%64.
+ * Bits past length() are always kept at zero so that word-level operations need no masking.
  */
 public class BinaryCode {
 
-    private ArrayList<Boolean> myBitContent;
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+    private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
 
+    private long[] myWords;
+    private int myLength;
+
+    /**
+     * @param content bits as '0' and '1' characters; spaces, tabs and line breaks are skipped
+     * @throws InvalidInputFormatException if content holds any other character
+     */
     public BinaryCode(String content) throws InvalidInputFormatException {
-        if(!validateBinary(content)){
+        this(content, null);
+    }
+
+    /**
+     * @param content bits as '0' and '1' characters; spaces, tabs and line breaks are skipped
+     * @param listener receives the number of characters parsed out of content.length(); may be null
+     * @throws InvalidInputFormatException if content holds any other character
+     * @throws java.util.concurrent.CancellationException if the listener cancels parsing
+     */
+    public BinaryCode(String content, ProgressListener listener) throws InvalidInputFormatException {
+        // characters outside ISO-8859-1 become '?' and are rejected
+        byte[] chars = content.getBytes(StandardCharsets.ISO_8859_1);
+        long[] words = new long[BitArrays.numWords(chars.length)];
+        int length = BitText.parse(chars, words, new ProgressTracker(listener, chars.length));
+        if(length < 0){
             throw new InvalidInputFormatException();
         }
-        myBitContent = new ArrayList<>();
-        for(int i = 0; i<content.length(); i++){
-            myBitContent.add(content.charAt(i)=='1');
-        }
+        myLength = length;
+        myWords = words.length == BitArrays.numWords(length) ? words : Arrays.copyOf(words, BitArrays.numWords(length));
     }
 
     BinaryCode(Collection <Boolean> content){
-        this.myBitContent = new ArrayList<>(content);
+        myLength = content.size();
+        myWords = new long[BitArrays.numWords(myLength)];
+        int index = 0;
+        for(boolean b : content){
+            if(b){
+                myWords[index >>> ADDRESS_BITS_PER_WORD] |= 1L << index;
+            }
+            index++;
+        }
     }
 
-    public String toString(){
-        StringBuilder sb =new StringBuilder();
-        for(boolean b:this.myBitContent){
-            sb.append(b?'1':'0');
+    /**
+     * @param length number of bits in the new word, all initialized to 0
+     */
+    BinaryCode(int length){
+        if(length < 0){
+            throw new IllegalArgumentException("Negative length: " + length);
         }
-        return sb.toString();
+        myLength = length;
+        myWords = new long[BitArrays.numWords(length)];
+    }
+
+    public String toString(){
+        return toString(null);
+    }
+
+    /**
+     * @param listener receives the number of bits formatted out of length(); may be null
+     * @throws java.util.concurrent.CancellationException if the listener cancels formatting
+     */
+    public String toString(ProgressListener listener){
+        byte[] chars = BitText.format(myWords, myLength, new ProgressTracker(listener, myLength));
+        return new String(chars, StandardCharsets.ISO_8859_1);
     }
 
     public Integer length(){
-        return this.myBitContent.size();
+        return this.myLength;
     }
 
     public List<Boolean> getBits(){
-        return new ArrayList<>(this.myBitContent);
+        List<Boolean> bits = new ArrayList<>(myLength);
+        for(int i = 0; i<myLength; i++){
+            bits.add(getBit(i));
+        }
+        return bits;
     }
 
-    private boolean validateBinary(String str){
-        for(char c : str.toCharArray()){
-            if(c != '0' && c!='1'){
-                return false;
-            }
+    /**
+     * @param index bit index within the word
+     * @return value of the bit at index
+     */
+    public boolean getBit(int index){
+        Objects.checkIndex(index, myLength);
+        return (myWords[index >>> ADDRESS_BITS_PER_WORD] & (1L << index)) != 0;
+    }
+
+    /**
+     * @param index bit index within the word
+     * @param value new value of the bit at index
+     */
+    public void setBit(int index, boolean value){
+        Objects.checkIndex(index, myLength);
+        if(value){
+            myWords[index >>> ADDRESS_BITS_PER_WORD] |= 1L << index;
+        }else{
+            myWords[index >>> ADDRESS_BITS_PER_WORD] &= ~(1L << index);
         }
-        return true;
+    }
+
+    /**
+     * Inverts the bit at index, e.g. to repair a detected single-bit corruption.
+     * @param index bit index within the word
+     */
+    public void flipBit(int index){
+        Objects.checkIndex(index, myLength);
+        myWords[index >>> ADDRESS_BITS_PER_WORD] ^= 1L << index;
+    }
+
+    /**
+     * Counts the bits set to 1 within [fromIndex, toIndex).
+     * @param fromIndex first bit index, inclusive
+     * @param toIndex last bit index, exclusive
+     * @return number of set bits in the range
+     */
+    public int cardinality(int fromIndex, int toIndex){
+        Objects.checkFromToIndex(fromIndex, toIndex, myLength);
+        if(fromIndex == toIndex){
+            return 0;
+        }
+        int first = fromIndex >>> ADDRESS_BITS_PER_WORD;
+        int last = (toIndex - 1) >>> ADDRESS_BITS_PER_WORD;
+        long firstMask = -1L << fromIndex;
+        long lastMask = -1L >>> -toIndex;
+        if(first == last){
+            return Long.bitCount(myWords[first] & firstMask & lastMask);
+        }
+        int count = Long.bitCount(myWords[first] & firstMask);
+        for(int i = first+1; i<last; i++){
+            count += Long.bitCount(myWords[i]);
+        }
+        return count + Long.bitCount(myWords[last] & lastMask);
+    }
+
+    /**
+     * Reads up to 64 consecutive bits as a long, bit fromIndex landing at bit 0 of the result.
+     * @param fromIndex first bit index
+     * @param count number of bits to read, between 0 and 64
+     * @return the bits packed into the low count bits of a long
+     */
+    public long getLong(int fromIndex, int count){
+        Objects.checkFromIndexSize(fromIndex, count, myLength);
+        if(count > BITS_PER_WORD){
+            throw new IllegalArgumentException("Cannot read more than 64 bits: " + count);
+        }
+        return BitArrays.getLong(myWords, fromIndex, count);
+    }
+
+    /**
+     * Overwrites up to 64 consecutive bits with the low count bits of value.
+     * @param fromIndex first bit index
+     * @param count number of bits to write, between 0 and 64
+     * @param value bits to write, bit 0 going to fromIndex
+     */
+    public void setLong(int fromIndex, int count, long value){
+        Objects.checkFromIndexSize(fromIndex, count, myLength);
+        if(count > BITS_PER_WORD){
+            throw new IllegalArgumentException("Cannot write more than 64 bits: " + count);
+        }
+        BitArrays.setLong(myWords, fromIndex, count, value);
+    }
+
+    /**
+     * @param wordIndex index of a 64-bit word, covering bits [64*wordIndex, 64*wordIndex+64)
+     * @return the packed word; bits past length() read as 0
+     */
+    public long getWord(int wordIndex){
+        return myWords[wordIndex];
+    }
+
+    /**
+     * @return number of 64-bit words backing this code
+     */
+    public int numWords(){
+        return myWords.length;
+    }
+
+    /**
+     * @return the live backing words, for coders in this package that work on whole blocks
+     */
+    long[] words(){
+        return myWords;
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if(this == o) return true;
+        if(!(o instanceof BinaryCode)) return false;
+        BinaryCode other = (BinaryCode) o;
+        return myLength == other.myLength && Arrays.equals(myWords, other.myWords);
+    }
+
+    @Override
+    public int hashCode(){
+        return 31*myLength + Arrays.hashCode(myWords);
     }
 
 }
@@ -0,0 +1,158 @@
+package code;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Bit-range helpers over packed long[] bit-vectors, bit i living in word i/64 at bit position i%64.
+ * Callers are responsible for bounds checking.
+ */
+final class BitArrays {
+
+    private BitArrays(){
+    }
+
+    /**
+     * @return number of 64-bit words needed to hold length bits
+     */
+    static int numWords(int length){
+        return (length + 63) >>> 6;
+    }
+
+    /**
+     * Reads up to 64 consecutive bits, bit fromIndex landing at bit 0 of the result.
+     */
+    static long getLong(long[] words, long fromIndex, int count){
+        if(count == 0){
+            return 0L;
+        }
+        int word = (int) (fromIndex >>> 6);
+        int shift = (int) fromIndex & 63;
+        long value = words[word] >>> shift;
+        if(shift + count > 64){
+            value |= words[word+1] << -shift;
+        }
+        return count == 64 ? value : value & ~(-1L << count);
+    }
+
+    /**
+     * Reads up to 64 consecutive bits of a byte-oriented bit-vector, bit i being bit i%8 of byte i/8 of buffer,
+     * bit bitIndex landing at bit 0 of the result. Only the bytes holding the requested bits are accessed.
+     */
+    static long getLong(ByteBuffer buffer, long bitIndex, int count){
+        if(count == 0){
+            return 0L;
+        }
+        int index = (int) (bitIndex >>> 3);
+        int shift = (int) bitIndex & 7;
+        int numBytes = (shift + count + 7) >>> 3;
+        long value;
+        if(numBytes >= 8){
+            value = buffer.getLong(index);
+            value = (buffer.order() == ByteOrder.BIG_ENDIAN ? Long.reverseBytes(value) : value) >>> shift;
+            if(numBytes > 8){
+                value |= (buffer.get(index+8) & 0xFFL) << -shift;
+            }
+        }else{
+            value = 0L;
+            for(int i = 0; i<numBytes; i++){
+                value |= (buffer.get(index+i) & 0xFFL) << (i << 3);
+            }
+            value >>>= shift;
+        }
+        return count == 64 ? value : value & ~(-1L << count);
+    }
+
+    /**
+     * Overwrites up to 64 consecutive bits with the low count bits of value.
+     */
+    static void setLong(long[] words, int fromIndex, int count, long value){
+        if(count == 0){
+            return;
+        }
+        long mask = count == 64 ? -1L : ~(-1L << count);
+        value &= mask;
+        int word = fromIndex >>> 6;
+        int shift = fromIndex & 63;
+        words[word] = (words[word] & ~(mask << shift)) | (value << shift);
+        if(shift + count > 64){
+            words[word+1] = (words[word+1] & ~(mask >>> -shift)) | (value >>> -shift);
+        }
+    }
+
+    /**
+     * Copies length bits from src starting at srcIndex into dst starting at dstIndex, 64 bits at a time.
+     */
+    static void copy(long[] src, int srcIndex, long[] dst, int dstIndex, int length){
+        while(length > 0){
+            int count = Math.min(length, 64);
+            setLong(dst, dstIndex, count, getLong(src, srcIndex, count));
+            srcIndex += count;
+            dstIndex += count;
+            length -= count;
+        }
+    }
+
+    static boolean getBit(long[] words, int index){
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    static void flipBit(long[] words, long index){
+        words[(int) (index >>> 6)] ^= 1L << index;
+    }
+
+    /**
+     * Clears all bits from fromIndex to the end of the last word.
+     */
+    static void clearFrom(long[] words, int fromIndex){
+        int word = fromIndex >>> 6;
+        if(word < words.length){
+            words[word] &= ~(-1L << fromIndex);
+            for(int i = word+1; i<words.length; i++){
+                words[i] = 0L;
+            }
+        }
+    }
+
+    /**
+     * Loads numBytes bytes starting at the absolute index of buffer into words, byte i holding bits 8i..8i+7.
+     * Words past the loaded bytes are cleared. The buffer's position and byte order are left unchanged.
+     */
+    static void readBytes(ByteBuffer buffer, int index, long[] words, int numBytes){
+        boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        int word = 0;
+        for(; numBytes >= 8; numBytes -= 8, index += 8){
+            long value = buffer.getLong(index);
+            words[word++] = bigEndian ? Long.reverseBytes(value) : value;
+        }
+        if(numBytes > 0){
+            long value = 0L;
+            for(int i = 0; i<numBytes; i++){
+                value |= (buffer.get(index+i) & 0xFFL) << (i << 3);
+            }
+            words[word++] = value;
+        }
+        while(word < words.length){
+            words[word++] = 0L;
+        }
+    }
+
+    /**
+     * Stores the first numBytes bytes of words at the absolute index of buffer, byte i holding bits 8i..8i+7.
+     * The buffer's position and byte order are left unchanged.
+     */
+    static void writeBytes(long[] words, ByteBuffer buffer, int index, int numBytes){
+        boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        int word = 0;
+        for(; numBytes >= 8; numBytes -= 8, index += 8){
+            long value = words[word++];
+            buffer.putLong(index, bigEndian ? Long.reverseBytes(value) : value);
+        }
+        if(numBytes > 0){
+            long value = words[word];
+            for(int i = 0; i<numBytes; i++){
+                buffer.put(index+i, (byte) (value >>> (i << 3)));
+            }
+        }
+    }
+}
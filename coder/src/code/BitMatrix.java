@@ -0,0 +1,25 @@
+package code;
+
+/**
+ * Bit-matrix helpers over 64x64 blocks of bits stored as 64 longs, row r being a long whose bit c is column c.
+ */
+final class BitMatrix {
+
+    private BitMatrix(){
+    }
+
+    /**
+     * Transposes the 64x64 bit matrix a[offset..offset+63] in place, so that bit c of row r becomes bit r of row c.
+     * Works by swapping ever smaller off-diagonal sub-blocks: 32x32 blocks first, then 16x16 within them, down to single bits.
+     */
+    static void transpose64(long[] a, int offset){
+        long mask = 0x00000000FFFFFFFFL;
+        for(int j = 32; j != 0; j >>>= 1, mask ^= mask << j){
+            for(int k = 0; k<64; k = ((k | j) + 1) & ~j){
+                long t = ((a[offset+k] >>> j) ^ a[offset+k+j]) & mask;
+                a[offset+k] ^= t << j;
+                a[offset+k+j] ^= t;
+            }
+        }
+    }
+}
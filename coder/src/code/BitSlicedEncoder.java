@@ -0,0 +1,135 @@
+package code;
+
+import java.util.Arrays;
+
+/**
+ * Batch encoder for many small words of the same size, producing the same code words as HammingCoder.
+ * Records are handled 64 at a time: they are transposed into bit slices, slice i holding bit i of all 64 records,
+ * so that each parity bit of all 64 records is computed by XORing the data slices it covers, and the code
+ * slices are transposed back into one code word per record.
+ * Each record holds its data bits in the low bits of a long, bit i being data bit i; each code word holds code
+ * bit i, i.e. the bit at index i of the HammingCoder output, at bit i. Instances are immutable and may be shared.
+ */
+public class BitSlicedEncoder {
+
+    // records transposed at a time
+    private static final int LANES = 64;
+
+    private final int myDataBits;
+    private final int myCodeBits;
+    private final int myNumParityBits;
+    // data bit held by each code position, -1 at parity positions
+    private final int[] myDataIndex;
+    // dataCoverage[j] lists the data bits covered by the parity bit at index 2^j
+    private final int[][] myDataCoverage;
+
+    /**
+     * @param dataBits number of data bits per record, from 1 to 57 so that a code word fits in a long
+     */
+    public BitSlicedEncoder(int dataBits){
+        myCodeBits = HammingCoder.getInstance().encodedLength(dataBits);
+        if(dataBits < 1 || myCodeBits > LANES){
+            throw new IllegalArgumentException("Records must hold 1 to 57 data bits: " + dataBits);
+        }
+        myDataBits = dataBits;
+        myNumParityBits = myCodeBits - dataBits - 1;
+        myDataIndex = new int[myCodeBits];
+        int[][] coverage = new int[myNumParityBits][dataBits];
+        int[] coverageSizes = new int[myNumParityBits];
+        int dataIndex = 0;
+        for(int index = 0; index<myCodeBits; index++){
+            if((index & (index-1)) == 0){
+                myDataIndex[index] = -1;
+                continue;
+            }
+            myDataIndex[index] = dataIndex;
+            for(int j = 0; j<myNumParityBits; j++){
+                if((index & (1 << j)) != 0){
+                    coverage[j][coverageSizes[j]++] = dataIndex;
+                }
+            }
+            dataIndex++;
+        }
+        myDataCoverage = new int[myNumParityBits][];
+        for(int j = 0; j<myNumParityBits; j++){
+            myDataCoverage[j] = Arrays.copyOf(coverage[j], coverageSizes[j]);
+        }
+    }
+
+    public int getDataBits(){
+        return myDataBits;
+    }
+
+    public int getCodeBits(){
+        return myCodeBits;
+    }
+
+    /**
+     * Encodes count records.
+     * @param data records, from index dataFrom; bits past getDataBits() are ignored
+     * @param code receives the code words, from index codeFrom; bits past getCodeBits() are 0
+     */
+    public void encode(long[] data, int dataFrom, long[] code, int codeFrom, int count){
+        long[] slices = new long[LANES];
+        long[] codeSlices = new long[LANES];
+        long dataMask = -1L >>> (LANES - myDataBits);
+        for(int first = 0; first<count; first += LANES){
+            int lanes = Math.min(LANES, count - first);
+            for(int i = 0; i<lanes; i++){
+                slices[i] = data[dataFrom + first + i] & dataMask;
+            }
+            Arrays.fill(slices, lanes, LANES, 0L);
+            BitMatrix.transpose64(slices, 0);
+            encodeSlices(slices, codeSlices);
+            BitMatrix.transpose64(codeSlices, 0);
+            System.arraycopy(codeSlices, 0, code, codeFrom + first, lanes);
+        }
+    }
+
+    /**
+     * Extracts the data bits of count code words, without correction.
+     * @param code code words, from index codeFrom; bits past getCodeBits() are ignored
+     * @param data receives the records, from index dataFrom; bits past getDataBits() are 0
+     */
+    public void decode(long[] code, int codeFrom, long[] data, int dataFrom, int count){
+        long[] slices = new long[LANES];
+        long[] dataSlices = new long[LANES];
+        for(int first = 0; first<count; first += LANES){
+            int lanes = Math.min(LANES, count - first);
+            System.arraycopy(code, codeFrom + first, slices, 0, lanes);
+            Arrays.fill(slices, lanes, LANES, 0L);
+            BitMatrix.transpose64(slices, 0);
+            for(int index = 0; index<myCodeBits; index++){
+                if(myDataIndex[index] >= 0){
+                    dataSlices[myDataIndex[index]] = slices[index];
+                }
+            }
+            BitMatrix.transpose64(dataSlices, 0);
+            System.arraycopy(dataSlices, 0, data, dataFrom + first, lanes);
+            Arrays.fill(dataSlices, 0L);
+        }
+    }
+
+    /**
+     * Computes the code slices of 64 records from their data slices.
+     */
+    private void encodeSlices(long[] dataSlices, long[] codeSlices){
+        Arrays.fill(codeSlices, 0L);
+        long overall = 0L;
+        for(int index = 0; index<myCodeBits; index++){
+            if(myDataIndex[index] >= 0){
+                codeSlices[index] = dataSlices[myDataIndex[index]];
+                overall ^= codeSlices[index];
+            }
+        }
+        for(int j = 0; j<myNumParityBits; j++){
+            long parity = 0L;
+            for(int dataIndex : myDataCoverage[j]){
+                parity ^= dataSlices[dataIndex];
+            }
+            codeSlices[1 << j] = parity;
+            overall ^= parity;
+        }
+        codeSlices[0] = overall;
+    }
+}
@@ -0,0 +1,108 @@
+package code;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Conversions between packed bit-vectors and their textual form, one ASCII '0' or '1' per bit.
+ * Both directions handle 8 characters per step with SWAR (SIMD within a register) arithmetic on 64-bit
+ * little-endian loads and stores, so that byte k of a long is character k.
+ */
+final class BitText {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ZEROS = 0x3030303030303030L;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    // multiplier gathering the low bits of the 8 bytes into the top byte, byte k landing at bit 56 + k
+    private static final long GATHER = 0x0102040810204080L;
+    // selects bit k of byte k of a broadcast byte
+    private static final long SPREAD = 0x8040201008040201L;
+
+    private BitText(){
+    }
+
+    /**
+     * Packs the bits written in chars, skipping spaces, tabs and line breaks.
+     * @param chars ISO-8859-1 characters
+     * @param words receives the bits, at least numWords(chars.length) words all set to 0
+     * @param progress advanced by the number of characters parsed, one chunk at a time
+     * @return number of bits, or -1 if chars holds another character
+     */
+    static int parse(byte[] chars, long[] words, ProgressTracker progress){
+        int length = 0;
+        int reported = 0;
+        int i = 0;
+        for(; i + 8 <= chars.length; i += 8){
+            if(i - reported >= ProgressTracker.CHUNK_BITS){
+                progress.advance(i - reported);
+                reported = i;
+            }
+            long x = (long) LONGS.get(chars, i);
+            // '0' and '1' only differ in their low bit
+            if((x & ~LOW_BITS) == ZEROS){
+                long bits = ((x & LOW_BITS) * GATHER) >>> 56;
+                words[length >>> 6] |= bits << length;
+                if((length & 63) > 56){
+                    words[(length >>> 6) + 1] |= bits >>> -length;
+                }
+                length += 8;
+            }else{
+                length = parseSlow(chars, i, i + 8, words, length);
+                if(length < 0){
+                    return -1;
+                }
+            }
+        }
+        length = parseSlow(chars, i, chars.length, words, length);
+        progress.advance(chars.length - reported);
+        return length;
+    }
+
+    /**
+     * Formats the first length bits of words.
+     * @param progress advanced by the number of bits formatted, one chunk at a time
+     * @return length ISO-8859-1 characters
+     */
+    static byte[] format(long[] words, int length, ProgressTracker progress){
+        byte[] chars = new byte[length];
+        int reported = 0;
+        int i = 0;
+        for(; i + 8 <= length; i += 8){
+            if(i - reported >= ProgressTracker.CHUNK_BITS){
+                progress.advance(i - reported);
+                reported = i;
+            }
+            long bits = (words[i >>> 6] >>> i) & 0xFF;
+            // broadcast the byte, keep bit k in byte k and turn every non-zero byte into 1
+            long x = (bits * LOW_BITS) & SPREAD;
+            x = ((x + 0x7F7F7F7F7F7F7F7FL) >>> 7) & LOW_BITS;
+            LONGS.set(chars, i, x | ZEROS);
+        }
+        for(; i<length; i++){
+            chars[i] = (byte) ('0' + ((words[i >>> 6] >>> i) & 1));
+        }
+        progress.advance(length - reported);
+        return chars;
+    }
+
+    /**
+     * Parses chars[from, to) one character at a time, appending bits at index length.
+     * @return the new number of bits, or -1 on a character other than a bit or whitespace
+     */
+    private static int parseSlow(byte[] chars, int from, int to, long[] words, int length){
+        for(int i = from; i<to; i++){
+            byte c = chars[i];
+            if(c == '1'){
+                words[length >>> 6] |= 1L << length;
+                length++;
+            }else if(c == '0'){
+                length++;
+            }else if(c != ' ' && c != '\t' && c != '\n' && c != '\r'){
+                return -1;
+            }
+        }
+        return length;
+    }
+}
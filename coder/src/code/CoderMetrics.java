@@ -0,0 +1,281 @@
+package code;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters of the work done by the coders: words and bits processed, call latencies and
+ * corrected or detected corruptions. A rising number of single-bit errors is an early sign of degrading storage.
+ * Collection is off by default; while disabled the coders only read one volatile flag per call.
+ * Counters are striped LongAdders, so concurrent coders do not contend on them. Latencies are kept in
+ * histograms with one bucket per power of two of nanoseconds.
+ */
+public final class CoderMetrics implements CoderMetricsMXBean {
+
+    public enum Operation {
+        ENCODE,
+        DECODE,
+        VALIDATE,
+        CORRECT
+    }
+
+    public static final String OBJECT_NAME = "code:type=CoderMetrics";
+
+    private static final int BUCKETS = 64;
+    // start() measures from this origin, so that started calls never return the negative DISABLED
+    private static final long ORIGIN = System.nanoTime();
+    private static final long DISABLED = -1L;
+    private static final CoderMetrics INSTANCE = new CoderMetrics();
+
+    private static volatile boolean enabled;
+
+    private final LongAdder[] myWords = newAdders(Operation.values().length);
+    private final LongAdder[] myBits = newAdders(Operation.values().length);
+    private final LongAdder[] myCalls = newAdders(Operation.values().length);
+    private final LongAdder[] myNanos = newAdders(Operation.values().length);
+    // latencies[op][b] counts calls taking from 2^(b-1) to 2^b - 1 nanoseconds
+    private final LongAdder[][] myLatencies = new LongAdder[Operation.values().length][];
+    private final LongAdder mySingleBitErrors = new LongAdder();
+    private final LongAdder myDoubleBitErrors = new LongAdder();
+
+    private CoderMetrics(){
+        for(int op = 0; op<myLatencies.length; op++){
+            myLatencies[op] = newAdders(BUCKETS);
+        }
+    }
+
+    public static CoderMetrics getInstance(){
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server under OBJECT_NAME, unless already registered.
+     * @throws JMException if registration fails
+     */
+    public static void registerMBean() throws JMException {
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if(!ManagementFactory.getPlatformMBeanServer().isRegistered(name)){
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, name);
+        }
+    }
+
+    /**
+     * @return start time of a call to pass to record, non-negative, or a negative value while disabled
+     */
+    static long start(){
+        return enabled ? System.nanoTime() - ORIGIN : DISABLED;
+    }
+
+    /**
+     * Records one call.
+     * @param start value returned by start() when the call began
+     * @param words number of words or blocks processed
+     * @param bits number of payload bits processed
+     */
+    static void record(Operation operation, long start, long words, long bits){
+        if(!enabled || start < 0L){
+            return;
+        }
+        long nanos = System.nanoTime() - ORIGIN - start;
+        int op = operation.ordinal();
+        INSTANCE.myWords[op].add(words);
+        INSTANCE.myBits[op].add(bits);
+        INSTANCE.myCalls[op].increment();
+        INSTANCE.myNanos[op].add(nanos);
+        INSTANCE.myLatencies[op][64 - Long.numberOfLeadingZeros(Math.max(nanos, 0L))].increment();
+    }
+
+    /**
+     * Records corruptions found by a call.
+     */
+    static void recordErrors(long singleBitErrors, long doubleBitErrors){
+        if(!enabled){
+            return;
+        }
+        if(singleBitErrors != 0){
+            INSTANCE.mySingleBitErrors.add(singleBitErrors);
+        }
+        if(doubleBitErrors != 0){
+            INSTANCE.myDoubleBitErrors.add(doubleBitErrors);
+        }
+    }
+
+    @Override
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enable){
+        enabled = enable;
+    }
+
+    /**
+     * @return a consistent-enough copy of all counters; counters updated concurrently may be partially included
+     */
+    public Snapshot snapshot(){
+        return new Snapshot(this);
+    }
+
+    @Override
+    public Map<String, Long> getWordCounts(){
+        return toMap(snapshot().myWords);
+    }
+
+    @Override
+    public Map<String, Long> getBitCounts(){
+        return toMap(snapshot().myBits);
+    }
+
+    @Override
+    public Map<String, Long> getMeanLatencyNanos(){
+        Snapshot snapshot = snapshot();
+        Map<String, Long> means = new LinkedHashMap<>();
+        for(Operation operation : Operation.values()){
+            means.put(operation.name(), snapshot.getMeanLatencyNanos(operation));
+        }
+        return means;
+    }
+
+    @Override
+    public Map<String, Long> getP99LatencyNanos(){
+        Snapshot snapshot = snapshot();
+        Map<String, Long> percentiles = new LinkedHashMap<>();
+        for(Operation operation : Operation.values()){
+            percentiles.put(operation.name(), snapshot.getLatencyPercentileNanos(operation, 0.99));
+        }
+        return percentiles;
+    }
+
+    @Override
+    public long getSingleBitErrors(){
+        return mySingleBitErrors.sum();
+    }
+
+    @Override
+    public long getDoubleBitErrors(){
+        return myDoubleBitErrors.sum();
+    }
+
+    @Override
+    public void reset(){
+        for(int op = 0; op<myWords.length; op++){
+            myWords[op].reset();
+            myBits[op].reset();
+            myCalls[op].reset();
+            myNanos[op].reset();
+            for(LongAdder bucket : myLatencies[op]){
+                bucket.reset();
+            }
+        }
+        mySingleBitErrors.reset();
+        myDoubleBitErrors.reset();
+    }
+
+    private static LongAdder[] newAdders(int count){
+        LongAdder[] adders = new LongAdder[count];
+        for(int i = 0; i<count; i++){
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static Map<String, Long> toMap(EnumMap<Operation, Long> values){
+        Map<String, Long> map = new LinkedHashMap<>();
+        values.forEach((operation, value) -> map.put(operation.name(), value));
+        return map;
+    }
+
+    /**
+     * Immutable copy of the counters, for polling without JMX.
+     */
+    public static final class Snapshot {
+
+        private final EnumMap<Operation, Long> myWords = new EnumMap<>(Operation.class);
+        private final EnumMap<Operation, Long> myBits = new EnumMap<>(Operation.class);
+        private final EnumMap<Operation, Long> myCalls = new EnumMap<>(Operation.class);
+        private final EnumMap<Operation, Long> myNanos = new EnumMap<>(Operation.class);
+        private final EnumMap<Operation, long[]> myLatencies = new EnumMap<>(Operation.class);
+        private final long mySingleBitErrors;
+        private final long myDoubleBitErrors;
+
+        private Snapshot(CoderMetrics metrics){
+            for(Operation operation : Operation.values()){
+                int op = operation.ordinal();
+                myWords.put(operation, metrics.myWords[op].sum());
+                myBits.put(operation, metrics.myBits[op].sum());
+                myCalls.put(operation, metrics.myCalls[op].sum());
+                myNanos.put(operation, metrics.myNanos[op].sum());
+                long[] buckets = new long[BUCKETS];
+                for(int b = 0; b<BUCKETS; b++){
+                    buckets[b] = metrics.myLatencies[op][b].sum();
+                }
+                myLatencies.put(operation, buckets);
+            }
+            mySingleBitErrors = metrics.mySingleBitErrors.sum();
+            myDoubleBitErrors = metrics.myDoubleBitErrors.sum();
+        }
+
+        public long getWords(Operation operation){
+            return myWords.get(operation);
+        }
+
+        public long getBits(Operation operation){
+            return myBits.get(operation);
+        }
+
+        public long getCalls(Operation operation){
+            return myCalls.get(operation);
+        }
+
+        public long getTotalNanos(Operation operation){
+            return myNanos.get(operation);
+        }
+
+        public long getMeanLatencyNanos(Operation operation){
+            long calls = getCalls(operation);
+            return calls == 0 ? 0L : getTotalNanos(operation) / calls;
+        }
+
+        /**
+         * @param fraction between 0 and 1, e.g. 0.99
+         * @return upper bound of the latency bucket holding that fraction of the calls, 0 if there were none
+         */
+        public long getLatencyPercentileNanos(Operation operation, double fraction){
+            long[] buckets = myLatencies.get(operation);
+            long calls = 0;
+            for(long count : buckets){
+                calls += count;
+            }
+            long rank = (long) Math.ceil(fraction * calls);
+            long seen = 0;
+            for(int b = 0; b<buckets.length; b++){
+                seen += buckets[b];
+                if(seen >= rank && seen > 0){
+                    return b == 63 ? Long.MAX_VALUE : (1L << b) - 1;
+                }
+            }
+            return 0L;
+        }
+
+        /**
+         * @return latency histogram, bucket b counting calls taking from 2^(b-1) to 2^b - 1 nanoseconds
+         */
+        public long[] getLatencyHistogram(Operation operation){
+            return myLatencies.get(operation).clone();
+        }
+
+        public long getSingleBitErrors(){
+            return mySingleBitErrors;
+        }
+
+        public long getDoubleBitErrors(){
+            return myDoubleBitErrors;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package code;
+
+import java.util.Map;
+
+/**
+ * Management interface of CoderMetrics, registered as code:type=CoderMetrics by CoderMetrics.registerMBean().
+ * Maps are keyed by CoderMetrics.Operation name.
+ */
+public interface CoderMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return number of words or blocks processed per operation
+     */
+    Map<String, Long> getWordCounts();
+
+    /**
+     * @return number of payload bits processed per operation
+     */
+    Map<String, Long> getBitCounts();
+
+    /**
+     * @return mean latency of one call per operation, in nanoseconds
+     */
+    Map<String, Long> getMeanLatencyNanos();
+
+    /**
+     * @return 99th percentile latency of one call per operation, in nanoseconds, rounded up to a power of two
+     */
+    Map<String, Long> getP99LatencyNanos();
+
+    long getSingleBitErrors();
+
+    long getDoubleBitErrors();
+
+    /**
+     * Clears all counters.
+     */
+    void reset();
+}
@@ -0,0 +1,323 @@
+package code;
+
+import exception.DoubleBitErrorException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+/**
+ * Packed binary container for encoded data, with random access to individual blocks.
+ * The file starts with a 32-byte little-endian header:
+ * <pre>
+ *  0  magic "HECC"
+ *  4  u16 format version
+ *  6  u8  code type: 0 = WORD (one HammingCoder word), 1 = BLOCK (SecdedBlockCoder blocks)
+ *  7  u8  reserved, 0
+ *  8  u32 data bits per block
+ * 12  u32 code bits per block
+ * 16  u64 original payload length in bits
+ * 24  u64 block count
+ * </pre>
+ * followed by the blocks, each packed least significant bit first into (code bits + 7) / 8 bytes.
+ * Since all blocks have the same size, block i lives at HEADER_BYTES + i * getBlockBytes() and no separate
+ * index is stored. A WORD container holds exactly one block, whose data bits are the payload length.
+ */
+public class EccContainer implements Closeable {
+
+    public static final int HEADER_BYTES = 32;
+    public static final int VERSION = 1;
+    // largest number of data bits per block accepted in the header of a BLOCK container
+    public static final int MAX_BLOCK_DATA_BITS = 1 << 16;
+
+    private static final int MAGIC = 'H' | 'E' << 8 | 'C' << 16 | 'C' << 24;
+
+    public enum CodeType {
+        WORD,
+        BLOCK
+    }
+
+    private final FileChannel myChannel;
+    private final CodeType myCodeType;
+    private final int myDataBits;
+    private final int myCodeBits;
+    private final long myOriginalBits;
+    private final long myBlockCount;
+    // null for WORD containers
+    private final SecdedBlockCoder myBlockCoder;
+
+    private EccContainer(FileChannel channel, ByteBuffer header) throws IOException {
+        myChannel = channel;
+        if(header.getInt(0) != MAGIC){
+            throw new IOException("Not an ECC container");
+        }
+        int version = header.getShort(4) & 0xFFFF;
+        if(version != VERSION){
+            throw new IOException("Unsupported container version " + version);
+        }
+        int type = header.get(6) & 0xFF;
+        if(type >= CodeType.values().length){
+            throw new IOException("Unknown code type " + type);
+        }
+        myCodeType = CodeType.values()[type];
+        myDataBits = header.getInt(8);
+        myCodeBits = header.getInt(12);
+        myOriginalBits = header.getLong(16);
+        myBlockCount = header.getLong(24);
+        if(myCodeBits < 1){
+            throw new IOException("Invalid code size " + myCodeBits);
+        }
+        if(myCodeType == CodeType.WORD){
+            if(myDataBits < 0 || myBlockCount != 1 || myOriginalBits != myDataBits
+                    || myCodeBits != HammingCoder.getInstance().encodedLength(myDataBits)){
+                throw new IOException("Inconsistent header for a single word");
+            }
+        }else{
+            if(myDataBits < 1 || myDataBits > MAX_BLOCK_DATA_BITS){
+                throw new IOException("Invalid block size " + myDataBits);
+            }
+            // blocks share the layout of HammingCoder words
+            if(myCodeBits != HammingCoder.getInstance().encodedLength(myDataBits) || myOriginalBits < 0
+                    || myBlockCount != (myOriginalBits + myDataBits - 1) / myDataBits){
+                throw new IOException("Inconsistent header for " + myBlockCount + " blocks");
+            }
+        }
+        // checked before anything is sized after the header, which may be corrupted or hostile
+        if(myBlockCount > (channel.size() - HEADER_BYTES) / getBlockBytes()){
+            throw new IOException("Truncated container: " + channel.size() + " bytes");
+        }
+        // not taken from the shared cache of forDataBits, so that block sizes read from files are not kept forever
+        myBlockCoder = myCodeType == CodeType.BLOCK ? new SecdedBlockCoder(myDataBits) : null;
+    }
+
+    /**
+     * Reads and checks the header of a container.
+     * @param channel file holding the container; open for writing as well to use correctBlock
+     * @return a view of the container; closing it closes channel
+     * @throws IOException if channel does not hold a well-formed container
+     */
+    public static EccContainer open(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while(header.hasRemaining()){
+            if(channel.read(header, header.position()) < 0){
+                throw new IOException("Not an ECC container");
+            }
+        }
+        return new EccContainer(channel, header);
+    }
+
+    /**
+     * Writes a WORD container holding one encoded word, as produced by HammingCoder.
+     * @param out receives the container
+     * @param code encoded word
+     * @throws IOException if writing fails
+     */
+    public static void writeWord(WritableByteChannel out, BinaryCode code) throws IOException {
+        int dataBits = HammingCoder.getInstance().decodedLength(code.length());
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + (code.length() + 7) / 8);
+        putHeader(buffer, CodeType.WORD, dataBits, code.length(), dataBits, 1);
+        BitArrays.writeBytes(code.words(), buffer, HEADER_BYTES, (code.length() + 7) / 8);
+        writeFully(out, buffer);
+    }
+
+    /**
+     * Encodes the remaining bytes of data into a BLOCK container, padding the last block with 0 bits.
+     * The position of data is advanced to its limit.
+     * @param out receives the container
+     * @param coder block coder; must use a whole number of data bytes per block
+     * @param data payload
+     * @throws IOException if writing fails
+     */
+    public static void writeBlocks(WritableByteChannel out, SecdedBlockCoder coder, ByteBuffer data) throws IOException {
+        long originalBits = data.remaining() * 8L;
+        int dataBytes = coder.getDataBytes();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        putHeader(header, CodeType.BLOCK, coder.getDataBits(), coder.getCodeBits(), originalBits,
+                (originalBits + coder.getDataBits() - 1) / coder.getDataBits());
+        writeFully(out, header);
+        ByteBuffer code = ByteBuffer.allocate(SecdedEncoder.DEFAULT_CHUNK_BLOCKS * coder.getCodeBytes());
+        while(data.remaining() >= dataBytes){
+            coder.encodeBlocks(data, code);
+            code.flip();
+            writeFully(out, code);
+            code.clear();
+        }
+        if(data.hasRemaining()){
+            ByteBuffer last = ByteBuffer.allocate(dataBytes);
+            last.put(data).rewind();
+            coder.encodeBlocks(last, code);
+            code.flip();
+            writeFully(out, code);
+        }
+    }
+
+    public CodeType getCodeType(){
+        return myCodeType;
+    }
+
+    public int getDataBits(){
+        return myDataBits;
+    }
+
+    public int getCodeBits(){
+        return myCodeBits;
+    }
+
+    public long getOriginalBits(){
+        return myOriginalBits;
+    }
+
+    public long getBlockCount(){
+        return myBlockCount;
+    }
+
+    /**
+     * @return number of bytes each block occupies in the file
+     */
+    public int getBlockBytes(){
+        return (myCodeBits + 7) / 8;
+    }
+
+    /**
+     * @return file offset of the given block
+     */
+    public long blockOffset(long block){
+        return HEADER_BYTES + block * getBlockBytes();
+    }
+
+    /**
+     * @return the encoded word of a WORD container
+     * @throws IllegalStateException if this is a BLOCK container
+     * @throws IOException if reading fails
+     */
+    public BinaryCode readWord() throws IOException {
+        if(myCodeType != CodeType.WORD){
+            throw new IllegalStateException("Not a single-word container");
+        }
+        return readBlock(0);
+    }
+
+    /**
+     * Validates one block without decoding the rest of the file.
+     * @param result receives the outcome, with the error bit index relative to the start of the block; may be reused
+     * @return result
+     * @throws IOException if reading fails
+     */
+    public ValidationResult validateBlock(long block, ValidationResult result) throws IOException {
+        BinaryCode code = readBlock(block);
+        if(myCodeType == CodeType.WORD){
+            return HammingCoder.getInstance().validate(code, result);
+        }
+        return myBlockCoder.validateBlock(code, 0, result);
+    }
+
+    /**
+     * Repairs a single-bit corruption of one block in the file.
+     * @return true if a corrupted bit has been repaired, false if the block was intact
+     * @throws DoubleBitErrorException if the block holds an uncorrectable corruption; the file is left unchanged
+     * @throws IOException if reading or writing fails
+     */
+    public boolean correctBlock(long block) throws IOException, DoubleBitErrorException {
+        ValidationResult result = validateBlock(block, new ValidationResult());
+        if(result.getStatus() == ValidationResult.Status.DOUBLE_BIT_ERROR){
+            throw new DoubleBitErrorException();
+        }
+        if(result.isValid()){
+            return false;
+        }
+        int errorBit = result.getErrorBitIndex();
+        long offset = blockOffset(block) + (errorBit >>> 3);
+        ByteBuffer fix = ByteBuffer.allocate(1);
+        readFully(fix, offset);
+        fix.put(0, (byte) (fix.get(0) ^ (1 << (errorBit & 7))));
+        fix.rewind();
+        while(fix.hasRemaining()){
+            myChannel.write(fix, offset + fix.position());
+        }
+        return true;
+    }
+
+    /**
+     * Decodes one block, correcting a single-bit corruption in memory, without decoding the rest of the file.
+     * Bit i of the payload is stored as bit i%8 of byte i/8; padding bits of the last block are dropped.
+     * @param data receives the payload bytes of the block, (number of payload bits + 7) / 8 of them
+     * @return number of payload bits in the block
+     * @throws DoubleBitErrorException if the block holds an uncorrectable corruption
+     * @throws IOException if reading fails
+     */
+    public int decodeBlock(long block, ByteBuffer data) throws IOException, DoubleBitErrorException {
+        BinaryCode code = readBlock(block);
+        int payloadBits = (int) Math.min(myDataBits, myOriginalBits - block * myDataBits);
+        BinaryCode decoded;
+        if(myCodeType == CodeType.WORD){
+            ValidationResult result = HammingCoder.getInstance().validate(code, new ValidationResult());
+            if(result.getStatus() == ValidationResult.Status.DOUBLE_BIT_ERROR){
+                throw new DoubleBitErrorException();
+            }else if(!result.isValid()){
+                code.flipBit(result.getErrorBitIndex());
+            }
+            decoded = HammingCoder.getInstance().decode(code);
+        }else{
+            int errorBit = myBlockCoder.locateError(code.words());
+            if(errorBit == -2){
+                throw new DoubleBitErrorException();
+            }else if(errorBit >= 0){
+                code.flipBit(errorBit);
+            }
+            decoded = new BinaryCode(myDataBits);
+            myBlockCoder.extractBlock(code.words(), decoded.words());
+        }
+        int numBytes = (payloadBits + 7) / 8;
+        BitArrays.clearFrom(decoded.words(), payloadBits);
+        BitArrays.writeBytes(decoded.words(), data, data.position(), numBytes);
+        data.position(data.position() + numBytes);
+        return payloadBits;
+    }
+
+    @Override
+    public void close() throws IOException {
+        myChannel.close();
+    }
+
+    private BinaryCode readBlock(long block) throws IOException {
+        Objects.checkIndex(block, myBlockCount);
+        ByteBuffer buffer = ByteBuffer.allocate(getBlockBytes());
+        readFully(buffer, blockOffset(block));
+        BinaryCode code = new BinaryCode(myCodeBits);
+        BitArrays.readBytes(buffer, 0, code.words(), getBlockBytes());
+        BitArrays.clearFrom(code.words(), myCodeBits);
+        return code;
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        while(buffer.hasRemaining()){
+            if(myChannel.read(buffer, offset + buffer.position()) < 0){
+                throw new IOException("Truncated container at offset " + (offset + buffer.position()));
+            }
+        }
+    }
+
+    private static void putHeader(ByteBuffer buffer, CodeType type, int dataBits, int codeBits,
+                                  long originalBits, long blockCount){
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC)
+                .putShort((short) VERSION)
+                .put((byte) type.ordinal())
+                .put((byte) 0)
+                .putInt(dataBits)
+                .putInt(codeBits)
+                .putLong(originalBits)
+                .putLong(blockCount);
+        buffer.rewind();
+    }
+
+    private static void writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()){
+            out.write(buffer);
+        }
+    }
+}
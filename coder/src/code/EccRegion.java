@@ -0,0 +1,256 @@
+package code;
+
+import exception.DoubleBitErrorException;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Off-heap memory region protected by a SecdedBlockCoder, as ECC memory protects DRAM: payload is stored
+ * as encoded blocks, reads correct single-bit corruptions on the fly and a Scrubber can sweep the region
+ * in the background to repair them before a second error in the same block makes it uncorrectable.
+ * Blocks are guarded by striped StampedLocks. Reads and scrubbing of intact blocks are optimistic and never
+ * block writers; only writes and repairs take a stripe's write lock.
+ */
+public class EccRegion {
+
+    // number of lock stripes; a power of two
+    static final int STRIPES = 256;
+
+    private final SecdedBlockCoder myCoder;
+    private final int myNumBlocks;
+    private final ByteBuffer myMemory;
+    private final StampedLock[] myLocks;
+
+    /**
+     * Allocates a region of numBlocks blocks, all holding encoded 0 bytes.
+     * @param coder block coder; must use a whole number of data bytes per block
+     * @param numBlocks number of blocks; the encoded region must fit in a direct ByteBuffer
+     */
+    public EccRegion(SecdedBlockCoder coder, int numBlocks){
+        if(numBlocks < 0 || (long) numBlocks * coder.getCodeBytes() > Integer.MAX_VALUE){
+            throw new IllegalArgumentException("Invalid number of blocks: " + numBlocks);
+        }
+        // fails fast on blocks that are not byte-aligned
+        coder.getDataBytes();
+        myCoder = coder;
+        myNumBlocks = numBlocks;
+        // the encoding of an all-zero block is all zeros, so the fresh buffer is already valid
+        myMemory = ByteBuffer.allocateDirect(numBlocks * coder.getCodeBytes());
+        myLocks = new StampedLock[STRIPES];
+        for(int i = 0; i<STRIPES; i++){
+            myLocks[i] = new StampedLock();
+        }
+    }
+
+    public SecdedBlockCoder getCoder(){
+        return myCoder;
+    }
+
+    public int getNumBlocks(){
+        return myNumBlocks;
+    }
+
+    /**
+     * @return number of payload bytes the region holds
+     */
+    public long getDataBytes(){
+        return (long) myNumBlocks * myCoder.getDataBytes();
+    }
+
+    /**
+     * Encodes getCoder().getDataBytes() bytes from data into a block. The position of data is advanced past them.
+     */
+    public void writeBlock(int block, ByteBuffer data){
+        checkBlock(block);
+        long[] dataBlock = new long[BitArrays.numWords(myCoder.getDataBits())];
+        long[] codeBlock = new long[BitArrays.numWords(myCoder.getCodeBits())];
+        BitArrays.readBytes(data, data.position(), dataBlock, myCoder.getDataBytes());
+        myCoder.encodeBlock(dataBlock, codeBlock);
+        StampedLock lock = lockFor(block);
+        long stamp = lock.writeLock();
+        try {
+            BitArrays.writeBytes(codeBlock, myMemory, offset(block), myCoder.getCodeBytes());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        data.position(data.position() + myCoder.getDataBytes());
+    }
+
+    /**
+     * Decodes a block into getCoder().getDataBytes() bytes of data, repairing a single-bit corruption in the region.
+     * The position of data is advanced past them.
+     * @return true if this call repaired a corrupted bit, false if the block was intact or repaired concurrently
+     * @throws DoubleBitErrorException if the block holds an uncorrectable corruption; data is left unchanged
+     */
+    public boolean readBlock(int block, ByteBuffer data) throws DoubleBitErrorException {
+        checkBlock(block);
+        long[] codeBlock = new long[BitArrays.numWords(myCoder.getCodeBits())];
+        int errorBit = loadBlock(block, codeBlock);
+        boolean repaired = false;
+        if(errorBit == -2){
+            throw new DoubleBitErrorException();
+        }else if(errorBit >= 0){
+            BitArrays.flipBit(codeBlock, errorBit);
+            repaired = repair(block) >= 0;
+        }
+        long[] dataBlock = new long[BitArrays.numWords(myCoder.getDataBits())];
+        myCoder.extractBlock(codeBlock, dataBlock);
+        BitArrays.writeBytes(dataBlock, data, data.position(), myCoder.getDataBytes());
+        data.position(data.position() + myCoder.getDataBytes());
+        return repaired;
+    }
+
+    /**
+     * Inverts one stored bit of a block, bypassing the code, to simulate a memory fault.
+     * @param bit index of the bit within the encoded block
+     */
+    public void injectFault(int block, int bit){
+        checkBlock(block);
+        if(bit < 0 || bit >= myCoder.getCodeBits()){
+            throw new IndexOutOfBoundsException("Bit " + bit + " out of " + myCoder.getCodeBits());
+        }
+        StampedLock lock = lockFor(block);
+        long stamp = lock.writeLock();
+        try {
+            int index = offset(block) + (bit >>> 3);
+            myMemory.put(index, (byte) (myMemory.get(index) ^ (1 << (bit & 7))));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Checks one block and repairs a single-bit corruption in place.
+     * @param codeBlock scratch space of getCodeBits() bits
+     * @return the index of the bit repaired by this call, -2 if the block is uncorrectable, or -1 if it is intact
+     *          or was rewritten or repaired concurrently
+     */
+    int scrubBlock(int block, long[] codeBlock){
+        int errorBit = loadBlock(block, codeBlock);
+        return errorBit >= 0 ? repair(block) : errorBit;
+    }
+
+    /**
+     * Decodes a block into getCoder().getDataBytes() bytes of data without checking it, trusting an earlier check.
+     * The position of data is advanced past them.
+     */
+    void readBlockUnchecked(int block, ByteBuffer data){
+        checkBlock(block);
+        long[] codeBlock = new long[BitArrays.numWords(myCoder.getCodeBits())];
+        readStable(block, codeBlock);
+        long[] dataBlock = new long[BitArrays.numWords(myCoder.getDataBits())];
+        myCoder.extractBlock(codeBlock, dataBlock);
+        BitArrays.writeBytes(dataBlock, data, data.position(), myCoder.getDataBytes());
+        data.position(data.position() + myCoder.getDataBytes());
+    }
+
+    /**
+     * Overwrites part of the payload of a block with bytes from src and re-encodes it, all under the write lock
+     * so that concurrent partial updates of the same block are not lost. A single-bit corruption of the bytes
+     * kept from the block is corrected on the way. The position of src is advanced past the bytes written.
+     * @param byteOffset offset of the first overwritten byte within the payload of the block
+     * @param length number of bytes to overwrite
+     * @throws DoubleBitErrorException if the block holds an uncorrectable corruption; the block is left unchanged
+     */
+    void updateBlock(int block, int byteOffset, ByteBuffer src, int length) throws DoubleBitErrorException {
+        checkBlock(block);
+        Objects.checkFromIndexSize(byteOffset, length, myCoder.getDataBytes());
+        long[] codeBlock = new long[BitArrays.numWords(myCoder.getCodeBits())];
+        long[] dataBlock = new long[BitArrays.numWords(myCoder.getDataBits())];
+        ByteBuffer payload = ByteBuffer.allocate(myCoder.getDataBytes());
+        StampedLock lock = lockFor(block);
+        long stamp = lock.writeLock();
+        try {
+            readCodeBlock(block, codeBlock);
+            int errorBit = myCoder.locateError(codeBlock);
+            if(errorBit == -2){
+                throw new DoubleBitErrorException();
+            }else if(errorBit >= 0){
+                BitArrays.flipBit(codeBlock, errorBit);
+            }
+            myCoder.extractBlock(codeBlock, dataBlock);
+            BitArrays.writeBytes(dataBlock, payload, 0, myCoder.getDataBytes());
+            for(int i = 0; i<length; i++){
+                payload.put(byteOffset + i, src.get(src.position() + i));
+            }
+            BitArrays.readBytes(payload, 0, dataBlock, myCoder.getDataBytes());
+            myCoder.encodeBlock(dataBlock, codeBlock);
+            BitArrays.writeBytes(codeBlock, myMemory, offset(block), myCoder.getCodeBytes());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        src.position(src.position() + length);
+    }
+
+    /**
+     * Reads a block and checks it.
+     * @return the outcome of locateError on the loaded block
+     */
+    private int loadBlock(int block, long[] codeBlock){
+        readStable(block, codeBlock);
+        return myCoder.locateError(codeBlock);
+    }
+
+    /**
+     * Reads a block with an optimistic read, falling back to the read lock if a writer interfered.
+     */
+    private void readStable(int block, long[] codeBlock){
+        StampedLock lock = lockFor(block);
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0L){
+            readCodeBlock(block, codeBlock);
+            if(lock.validate(stamp)){
+                return;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            readCodeBlock(block, codeBlock);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Repairs a block found corrupted by an unlocked read, checking it again under the write lock
+     * since a writer may have replaced it in between.
+     * @return the index of the repaired bit, or the outcome of locateError if nothing was written
+     */
+    private int repair(int block){
+        StampedLock lock = lockFor(block);
+        long stamp = lock.writeLock();
+        try {
+            long[] current = new long[BitArrays.numWords(myCoder.getCodeBits())];
+            readCodeBlock(block, current);
+            int errorBit = myCoder.locateError(current);
+            if(errorBit >= 0){
+                BitArrays.flipBit(current, errorBit);
+                BitArrays.writeBytes(current, myMemory, offset(block), myCoder.getCodeBytes());
+            }
+            return errorBit;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void readCodeBlock(int block, long[] codeBlock){
+        BitArrays.readBytes(myMemory, offset(block), codeBlock, myCoder.getCodeBytes());
+        BitArrays.clearFrom(codeBlock, myCoder.getCodeBits());
+    }
+
+    private StampedLock lockFor(int block){
+        return myLocks[block & (STRIPES - 1)];
+    }
+
+    private int offset(int block){
+        return block * myCoder.getCodeBytes();
+    }
+
+    private void checkBlock(int block){
+        if(block < 0 || block >= myNumBlocks){
+            throw new IndexOutOfBoundsException("Block " + block + " out of " + myNumBlocks);
+        }
+    }
+}
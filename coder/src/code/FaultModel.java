@@ -0,0 +1,92 @@
+package code;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random model of the storage faults hitting one encoded block, used by FaultSimulator.
+ * A model produces the error pattern, i.e. the set of stored bits that read back inverted.
+ */
+public interface FaultModel {
+
+    /**
+     * Sets the bits of pattern that are read back inverted in one block.
+     * @param pattern cleared error pattern of codeBits bits, packed into words
+     * @param codeBits number of bits in a block
+     * @param random source of randomness, owned by the calling thread
+     */
+    void inject(long[] pattern, int codeBits, SplittableRandom random);
+
+    /**
+     * Every bit is inverted independently with the given probability.
+     * @param bitErrorRate probability of a bit error, between 0 and 1
+     */
+    static FaultModel independent(double bitErrorRate){
+        checkProbability(bitErrorRate);
+        // gaps between errors are geometrically distributed, so sparse errors cost one draw each
+        double logKeep = Math.log1p(-bitErrorRate);
+        return (pattern, codeBits, random) -> {
+            if(bitErrorRate == 0.0){
+                return;
+            }
+            long bit = -1;
+            while(true){
+                bit += bitErrorRate == 1.0 ? 1 : 1 + (long) (Math.log(1.0 - random.nextDouble()) / logKeep);
+                if(bit >= codeBits){
+                    return;
+                }
+                BitArrays.flipBit(pattern, (int) bit);
+            }
+        };
+    }
+
+    /**
+     * With the given probability a block is hit by one burst, of a length drawn uniformly from 1 to maxLength
+     * and starting at a uniformly drawn bit. The first and last bits of a burst are inverted, the bits in between
+     * each with probability 1/2; bits past the end of the block are not affected.
+     */
+    static FaultModel burst(double burstProbability, int maxLength){
+        checkProbability(burstProbability);
+        if(maxLength < 1){
+            throw new IllegalArgumentException("Bursts must span at least one bit: " + maxLength);
+        }
+        return (pattern, codeBits, random) -> {
+            if(random.nextDouble() >= burstProbability){
+                return;
+            }
+            int start = random.nextInt(codeBits);
+            int end = Math.min(start + random.nextInt(maxLength), codeBits - 1);
+            BitArrays.flipBit(pattern, start);
+            for(int bit = start + 1; bit<end; bit++){
+                if(random.nextBoolean()){
+                    BitArrays.flipBit(pattern, bit);
+                }
+            }
+            if(end > start){
+                BitArrays.flipBit(pattern, end);
+            }
+        };
+    }
+
+    /**
+     * Every cell is stuck independently with the given probability, at 0 or 1 with equal probability.
+     * Since the stored bit is random, a stuck cell reads back wrong half of the time.
+     */
+    static FaultModel stuckAt(double stuckProbability){
+        checkProbability(stuckProbability);
+        FaultModel stuck = independent(stuckProbability);
+        return (pattern, codeBits, random) -> {
+            stuck.inject(pattern, codeBits, random);
+            for(int w = 0; w<pattern.length; w++){
+                if(pattern[w] != 0L){
+                    pattern[w] &= random.nextLong();
+                }
+            }
+        };
+    }
+
+    private static void checkProbability(double probability){
+        if(!(probability >= 0.0 && probability <= 1.0)){
+            throw new IllegalArgumentException("Not a probability: " + probability);
+        }
+    }
+}
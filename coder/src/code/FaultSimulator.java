@@ -0,0 +1,127 @@
+package code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Monte Carlo simulator of storage faults on SecdedBlockCoder blocks, estimating how often a block is
+ * recovered, reported uncorrectable or silently returned with a wrong payload under a FaultModel.
+ * Since the code is linear, the decoder's decision depends only on the error pattern and not on the stored
+ * payload, so each trial draws an error pattern and decodes it as if it hit the all-zero block. Trials are
+ * split over threads, each drawing from its own SplittableRandom stream split from the seed, so that a run
+ * is reproducible for a given seed and number of threads.
+ */
+public class FaultSimulator {
+
+    private final SecdedBlockCoder myCoder;
+    private final FaultModel myModel;
+    // data positions of a block
+    private final long[] myDataMask;
+
+    public FaultSimulator(SecdedBlockCoder coder, FaultModel model){
+        myCoder = coder;
+        myModel = model;
+        myDataMask = new long[BitArrays.numWords(coder.getCodeBits())];
+        for(int index = 3; index<coder.getCodeBits(); index++){
+            if((index & (index-1)) != 0){
+                BitArrays.flipBit(myDataMask, index);
+            }
+        }
+    }
+
+    /**
+     * Runs the trials on all available processors.
+     */
+    public SimulationResult run(long trials, long seed) throws InterruptedException {
+        return run(trials, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param trials number of blocks to simulate
+     * @param seed seed of the random streams
+     * @param threads number of threads to spread the trials over
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    public SimulationResult run(long trials, long seed, int threads) throws InterruptedException {
+        if(trials < 0 || threads < 1){
+            throw new IllegalArgumentException("Invalid run of " + trials + " trials on " + threads + " threads");
+        }
+        long start = System.nanoTime();
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Callable<long[]>> tasks = new ArrayList<>();
+        for(int t = 0; t<threads; t++){
+            long count = trials / threads + (t < trials % threads ? 1 : 0);
+            SplittableRandom random = root.split();
+            tasks.add(() -> simulate(count, random));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long[] totals = new long[SimulationResult.Outcome.values().length];
+        try {
+            for(Future<long[]> future : executor.invokeAll(tasks)){
+                long[] counts = future.get();
+                for(int i = 0; i<totals.length; i++){
+                    totals[i] += counts[i];
+                }
+            }
+        }catch (ExecutionException e){
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        Map<SimulationResult.Outcome, Long> counts = new EnumMap<>(SimulationResult.Outcome.class);
+        for(SimulationResult.Outcome outcome : SimulationResult.Outcome.values()){
+            counts.put(outcome, totals[outcome.ordinal()]);
+        }
+        return new SimulationResult(trials, System.nanoTime() - start, counts);
+    }
+
+    /**
+     * @return number of trials per SimulationResult.Outcome ordinal
+     */
+    private long[] simulate(long trials, SplittableRandom random){
+        long[] counts = new long[SimulationResult.Outcome.values().length];
+        long[] pattern = new long[myDataMask.length];
+        for(long trial = 0; trial<trials; trial++){
+            myModel.inject(pattern, myCoder.getCodeBits(), random);
+            counts[classify(pattern).ordinal()]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Classifies an error pattern and clears it for the next trial.
+     */
+    private SimulationResult.Outcome classify(long[] pattern){
+        boolean hit = false;
+        for(long word : pattern){
+            hit |= word != 0L;
+        }
+        if(!hit){
+            return SimulationResult.Outcome.NO_ERROR;
+        }
+        int errorBit = myCoder.locateError(pattern);
+        if(errorBit == -2){
+            Arrays.fill(pattern, 0L);
+            return SimulationResult.Outcome.DETECTED;
+        }
+        if(errorBit >= 0){
+            BitArrays.flipBit(pattern, errorBit);
+        }
+        // what remains of the pattern after the decoder's correction is what the payload reads back wrong
+        boolean wrongPayload = false;
+        for(int w = 0; w<pattern.length; w++){
+            wrongPayload |= (pattern[w] & myDataMask[w]) != 0L;
+            pattern[w] = 0L;
+        }
+        return wrongPayload ? SimulationResult.Outcome.SILENT : SimulationResult.Outcome.CORRECTED;
+    }
+}
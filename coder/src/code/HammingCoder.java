@@ -4,17 +4,32 @@ import exception.DoubleBitErrorException;
 import exception.InvalidInputFormatException;
 import exception.SingleBitErrorException;
 
-import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
 
+/**
+ * Hamming SECDED coder for single words of any length.
+ * Parity coverage is implicit in the bit indices (parity bit 2^j covers every index with bit j set), so a
+ * HammingCoder holds no tables and no mutable state; one instance, e.g. getInstance(), can be used by any
+ * number of threads without locking.
+ */
 public class HammingCoder {
 
-    // mapping of parity bit's index to coverage indices in the encoded bit stream
-    private Map<Integer, List<Integer>> parityMap;
+    private static final HammingCoder INSTANCE = new HammingCoder();
+    // words checked between two progress reports
+    private static final int CHUNK_WORDS = ProgressTracker.CHUNK_BITS >>> 6;
 
     public HammingCoder(){
-        parityMap = new HashMap<>();
+    }
+
+    /**
+     * @return a shared, thread-safe coder
+     */
+    public static HammingCoder getInstance(){
+        return INSTANCE;
     }
 
     /**
@@ -49,6 +64,44 @@ public class HammingCoder {
         return decodingResult.toString();
     }
 
+    /**
+     * Validates, corrects and decodes a bit sequence in one go, parsing it only once.
+     * @param code String containing the encoded bit sequence
+     * @param result receives the outcome of validation, with the index of the corrected bit if any; may be reused
+     * @return String containing the decoded bit sequence, after correcting a single-bit corruption.
+     *          On a double-bit corruption nothing is corrected and the bits are decoded as they are.
+     * @throws InvalidInputFormatException if the input String contains characters other than 0 or 1
+     */
+    public String decodeAndCorrect(String code, ValidationResult result) throws InvalidInputFormatException {
+        return decodeAndCorrect(new BinaryCode(code), result).toString();
+    }
+
+    /**
+     * Same as decodeAndCorrect(String, ValidationResult), repairing a single-bit corruption of code in place.
+     * @param code encoded bit sequence; a single corrupted bit is flipped back
+     * @param result receives the outcome of validation; may be reused
+     * @return the decoded bit sequence
+     */
+    public BinaryCode decodeAndCorrect(BinaryCode code, ValidationResult result){
+        return decodeAndCorrect(code, result, null);
+    }
+
+    /**
+     * Same as decodeAndCorrect(BinaryCode, ValidationResult), reporting progress in bits processed to listener
+     * about once per ProgressTracker.CHUNK_BITS bits and stopping as soon as it asks to.
+     * @param listener receives progress; may be null
+     * @throws CancellationException if listener cancels the operation; code may then have been corrected
+     */
+    public BinaryCode decodeAndCorrect(BinaryCode code, ValidationResult result, ProgressListener listener){
+        ProgressTracker progress = new ProgressTracker(listener,
+                ((long) code.numWords() << 6) + decodedLength(code.length()));
+        validate(code, result, progress);
+        if(result.getStatus() == ValidationResult.Status.SINGLE_BIT_ERROR){
+            code.flipBit(result.getErrorBitIndex());
+        }
+        return decode(code, progress);
+    }
+
     /**
      * Validate a bit sequence against single- or double-bit corruption.
      * @param codeContent String containing the bit sequence to validate
@@ -58,165 +111,432 @@ public class HammingCoder {
      * @throws DoubleBitErrorException if a double-bit corruption is detected.
      */
     public void validateCode(String codeContent) throws InvalidInputFormatException,SingleBitErrorException,DoubleBitErrorException{
-        BinaryCode code = new BinaryCode(codeContent);
-        int singleErrorBit = detectSingleError(code);
-        boolean overAllParity = validateOverallParity(code);
+        ValidationResult result = validate(new BinaryCode(codeContent), new ValidationResult());
+        if(result.getStatus() == ValidationResult.Status.SINGLE_BIT_ERROR){
+            throw new SingleBitErrorException(result.getErrorBitIndex());
+        }else if(result.getStatus() == ValidationResult.Status.DOUBLE_BIT_ERROR){
+            throw new DoubleBitErrorException();
+        }
+    }
+
+    /**
+     * Validate a bit sequence against single- or double-bit corruption without throwing on corruption.
+     * @param codeContent String containing the bit sequence to validate
+     * @param result receives the outcome; may be reused across calls
+     * @return result
+     * @throws InvalidInputFormatException if the input String contains characters other than 0 or 1
+     */
+    public ValidationResult validate(String codeContent, ValidationResult result) throws InvalidInputFormatException{
+        return validate(new BinaryCode(codeContent), result);
+    }
+
+    /**
+     * Validate a bit sequence against single- or double-bit corruption without throwing on corruption.
+     * @param code bit sequence to validate
+     * @param result receives the outcome; may be reused across calls
+     * @return result
+     */
+    public ValidationResult validate(BinaryCode code, ValidationResult result){
+        return validate(code, result, new ProgressTracker(null, 0));
+    }
+
+    private ValidationResult validate(BinaryCode code, ValidationResult result, ProgressTracker progress){
+        long start = CoderMetrics.start();
+        long checks = checkBits(code, progress);
+        classify(locate((int) checks, code.length()), (checks >>> 32) == 0, result);
+        CoderMetrics.record(CoderMetrics.Operation.VALIDATE, start, 1, code.length());
+        return result;
+    }
+
+    /**
+     * Validates an encoded word stored in a mutable packed buffer and repairs a single-bit corruption where it is.
+     * Bit i of the buffer is bit i%8 of byte i/8. Nothing is allocated or copied, and the buffer's position,
+     * limit and byte order are left unchanged.
+     * @param buffer holds the encoded word
+     * @param bitOffset bit index in buffer, counted from byte 0, of the first bit of the word
+     * @param bitLength number of bits in the word
+     * @param result receives the outcome, with the error bit index relative to bitOffset; may be reused
+     * @return result
+     * @throws IndexOutOfBoundsException if the word does not lie within the limit of buffer
+     */
+    public ValidationResult correctInPlace(ByteBuffer buffer, long bitOffset, int bitLength, ValidationResult result){
+        if(bitOffset < 0 || bitLength < 0 || bitOffset + bitLength > buffer.limit() * 8L){
+            throw new IndexOutOfBoundsException("Bits " + bitOffset + " + " + bitLength + " out of " + buffer.limit() + " bytes");
+        }
+        long start = CoderMetrics.start();
+        check((index, count) -> BitArrays.getLong(buffer, bitOffset + index, count), bitLength, result);
+        if(result.getStatus() == ValidationResult.Status.SINGLE_BIT_ERROR){
+            long errorBit = bitOffset + result.getErrorBitIndex();
+            int index = (int) (errorBit >>> 3);
+            buffer.put(index, (byte) (buffer.get(index) ^ (1 << (errorBit & 7))));
+        }
+        CoderMetrics.record(CoderMetrics.Operation.CORRECT, start, 1, bitLength);
+        return result;
+    }
 
+    /**
+     * Same as correctInPlace(ByteBuffer, long, int, ValidationResult) on a packed bit-vector, bit i living in
+     * word i/64 at bit position i%64.
+     */
+    public ValidationResult correctInPlace(long[] words, int bitOffset, int bitLength, ValidationResult result){
+        if(bitOffset < 0 || bitLength < 0 || (long) bitOffset + bitLength > words.length * 64L){
+            throw new IndexOutOfBoundsException("Bits " + bitOffset + " + " + bitLength + " out of " + words.length + " words");
+        }
+        long start = CoderMetrics.start();
+        check((index, count) -> BitArrays.getLong(words, (long) bitOffset + index, count), bitLength, result);
+        if(result.getStatus() == ValidationResult.Status.SINGLE_BIT_ERROR){
+            BitArrays.flipBit(words, (long) bitOffset + result.getErrorBitIndex());
+        }
+        CoderMetrics.record(CoderMetrics.Operation.CORRECT, start, 1, bitLength);
+        return result;
+    }
+
+    /**
+     * Reads the bits of a word stored outside a BinaryCode.
+     */
+    @FunctionalInterface
+    private interface WordReader {
+
+        /**
+         * @return bits [index, index + count) of the word, bit index at position 0
+         */
+        long read(int index, int count);
+    }
+
+    /**
+     * Validates a word of bitLength bits read through reader, 64 bits at a time.
+     * @return result
+     */
+    private ValidationResult check(WordReader reader, int bitLength, ValidationResult result){
+        long folded = 0L;
+        int syndrome = 0;
+        // computed in long, since rounding a length close to Integer.MAX_VALUE up to whole words overflows
+        int numWords = (int) ((bitLength + 63L) >>> 6);
+        for(int chunk = 0; chunk<numWords; chunk++){
+            // chunk << 6 is below bitLength, so neither the index nor the remaining count overflows
+            long word = reader.read(chunk << 6, Math.min(64, bitLength - (chunk << 6)));
+            folded ^= word;
+            if((Long.bitCount(word) & 1) != 0){
+                syndrome ^= chunk << 6;
+            }
+        }
+        syndrome |= ScalarParityKernel.lowSyndrome(folded);
+        return classify(locate(syndrome, bitLength), (Long.bitCount(folded) & 1) == 0, result);
+    }
+
+    /**
+     * @param singleErrorBit outcome of locate
+     * @param overAllParity true if the overall parity of the word is even
+     */
+    private ValidationResult classify(int singleErrorBit, boolean overAllParity, ValidationResult result){
         if(singleErrorBit!=-1 && singleErrorBit!=-2 && !overAllParity){
-            throw new SingleBitErrorException(singleErrorBit);
+            result.set(ValidationResult.Status.SINGLE_BIT_ERROR, singleErrorBit);
         }else if(singleErrorBit==-1 && !overAllParity){
-            throw new SingleBitErrorException(0);
+            result.set(ValidationResult.Status.SINGLE_BIT_ERROR, 0);
         }else if((singleErrorBit!=-1 && overAllParity) || singleErrorBit==-2){
-            throw new DoubleBitErrorException();
+            result.set(ValidationResult.Status.DOUBLE_BIT_ERROR, -1);
+        }else{
+            result.set(ValidationResult.Status.VALID, -1);
         }
+        CoderMetrics.recordErrors(result.getStatus() == ValidationResult.Status.SINGLE_BIT_ERROR ? 1 : 0,
+                result.getStatus() == ValidationResult.Status.DOUBLE_BIT_ERROR ? 1 : 0);
+        return result;
     }
 
     /**
-     * @param code bit stream to validate against single bit corruption
-     * @return bit index of the detected single error.
-     *      Return -1 if no single error detected.
-     *      Return -2 if more than one errors detected.
+     * @param dataBits number of payload bits
+     * @return number of bits in the encoded word
      */
-    private int detectSingleError(BinaryCode code){
-        int numPBits = numParityBitsDecode(code.length());
-        if(parityMap.size() < numPBits){
-            expandParityMap(numPBits);
-        }
-
-        boolean flag = false;
-        List<Boolean> bits = code.getBits();
-        List<Integer> corruption = IntStream.rangeClosed(1,bits.size()).boxed().collect(Collectors.toList());
-        int parityIndex = 1;
-        while(parityIndex <= Math.pow(2,numPBits-1)){
-            List<Boolean> coverage = collectCoveredBits(parityIndex, bits);
-            if(!validateParityBit(bits.get(parityIndex),coverage)){
-                flag = true;
-                corruption.retainAll(parityMap.get(parityIndex));
-            }else{
-                corruption.removeAll(parityMap.get(parityIndex));
-            }
-            parityIndex*=2;
+    public int encodedLength(int dataBits){
+        checkLength(dataBits);
+        return dataBits+numParityBitsEncode(dataBits)+1;
+    }
+
+    /**
+     * @param codeBits number of bits in an encoded word
+     * @return number of payload bits it holds
+     */
+    public int decodedLength(int codeBits){
+        checkLength(codeBits);
+        // indices 1..codeBits-1 hold one parity bit per power of two below codeBits
+        return codeBits > 1 ? codeBits-1-(32-Integer.numberOfLeadingZeros(codeBits-1)) : 0;
+    }
+
+    /**
+     * Changes one payload bit of an encoded word in place, without re-encoding it: only the bit itself, the parity
+     * bits covering its index and the overall parity bit are touched, in O(log n). A corruption already present
+     * in code is kept and is still detected the same way.
+     * @param code encoded word
+     * @param dataIndex index of the payload bit, as in the decoded word
+     * @param value new value of the payload bit
+     */
+    public void update(BinaryCode code, int dataIndex, boolean value){
+        Objects.checkIndex(dataIndex, decodedLength(code.length()));
+        updateBit(code.words(), 0, codePosition(dataIndex), value);
+    }
+
+    /**
+     * Same as update(BinaryCode, int, boolean) for several payload bits, in O(changed bits x log n).
+     * Bits are updated in order, so the last value given for an index wins.
+     * @param dataIndices indices of the payload bits; all are checked before code is changed
+     * @param values new values, values[i] going to dataIndices[i]
+     */
+    public void update(BinaryCode code, int[] dataIndices, boolean[] values){
+        if(dataIndices.length != values.length){
+            throw new IllegalArgumentException(dataIndices.length + " indices for " + values.length + " values");
         }
-        if(flag){
-            if(corruption.size()==1) {
-                return corruption.get(0);
-            }else{
-                return -2;
-            }
+        int dataBits = decodedLength(code.length());
+        for(int dataIndex : dataIndices){
+            Objects.checkIndex(dataIndex, dataBits);
+        }
+        for(int i = 0; i<dataIndices.length; i++){
+            updateBit(code.words(), 0, codePosition(dataIndices[i]), values[i]);
         }
-        return -1;
     }
 
-    private boolean validateOverallParity(BinaryCode code){
-        List<Boolean> bits = new ArrayList<>();
-        List<Boolean> codeBits = code.getBits();
-        for(int i = 1; i<codeBits.size(); i++){
-                bits.add(codeBits.get(i));
+    /**
+     * Encodes packed binary data. Bit i of the payload is bit i%8 of byte i/8, and the encoded word is stored the same way;
+     * bits of the last byte past the encoded length are set to 0. Both positions are advanced past the bytes used.
+     * @param data holds the payload in its first (dataBits+7)/8 remaining bytes; bits past dataBits are ignored
+     * @param dataBits number of payload bits
+     * @param code receives the (encodedLength(dataBits)+7)/8 bytes of the encoded word
+     * @return number of bits in the encoded word
+     * @throws java.nio.BufferUnderflowException if data holds fewer bytes than needed
+     * @throws java.nio.BufferOverflowException if code has less room than needed; no bytes are written then
+     */
+    public int encode(ByteBuffer data, int dataBits, ByteBuffer code){
+        BinaryCode encoded = encode(readBits(data, dataBits));
+        writeBits(encoded, code);
+        return encoded.length();
+    }
+
+    /**
+     * Same as encode(ByteBuffer, int, ByteBuffer) on arrays.
+     * @param code receives the encoded word from index 0
+     * @return number of bits in the encoded word
+     */
+    public int encode(byte[] data, int dataBits, byte[] code){
+        return encode(ByteBuffer.wrap(data), dataBits, ByteBuffer.wrap(code));
+    }
+
+    /**
+     * Recovers the payload of a packed encoded word, stored as by encode(ByteBuffer, int, ByteBuffer), without correction.
+     * Both positions are advanced past the bytes used.
+     * @param code holds the encoded word in its first (codeBits+7)/8 remaining bytes
+     * @param codeBits number of bits in the encoded word
+     * @param data receives the (decodedLength(codeBits)+7)/8 bytes of the payload
+     * @return number of payload bits
+     * @throws java.nio.BufferUnderflowException if code holds fewer bytes than needed
+     * @throws java.nio.BufferOverflowException if data has less room than needed; no bytes are written then
+     */
+    public int decode(ByteBuffer code, int codeBits, ByteBuffer data){
+        BinaryCode decoded = decode(readBits(code, codeBits));
+        writeBits(decoded, data);
+        return decoded.length();
+    }
+
+    /**
+     * Same as decode(ByteBuffer, int, ByteBuffer) on arrays.
+     * @param data receives the payload from index 0
+     * @return number of payload bits
+     */
+    public int decode(byte[] code, int codeBits, byte[] data){
+        return decode(ByteBuffer.wrap(code), codeBits, ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Validate a packed encoded word against single- or double-bit corruption without throwing on corruption.
+     * The position of code is advanced past the bytes used.
+     * @param code holds the encoded word in its first (codeBits+7)/8 remaining bytes
+     * @param codeBits number of bits in the encoded word
+     * @param result receives the outcome; may be reused across calls
+     * @return result
+     * @throws java.nio.BufferUnderflowException if code holds fewer bytes than needed
+     */
+    public ValidationResult validate(ByteBuffer code, int codeBits, ValidationResult result){
+        return validate(readBits(code, codeBits), result);
+    }
+
+    /**
+     * Same as validate(ByteBuffer, int, ValidationResult) on an array.
+     */
+    public ValidationResult validate(byte[] code, int codeBits, ValidationResult result){
+        return validate(ByteBuffer.wrap(code), codeBits, result);
+    }
+
+    private BinaryCode readBits(ByteBuffer buffer, int numBits){
+        checkLength(numBits);
+        int numBytes = (numBits + 7) >>> 3;
+        if(buffer.remaining() < numBytes){
+            throw new BufferUnderflowException();
         }
-        return validateParityBit(codeBits.get(0),bits);
+        BinaryCode bits = new BinaryCode(numBits);
+        BitArrays.readBytes(buffer, buffer.position(), bits.words(), numBytes);
+        BitArrays.clearFrom(bits.words(), numBits);
+        buffer.position(buffer.position() + numBytes);
+        return bits;
     }
 
-    private BinaryCode encode(BinaryCode code){
-        int numPBits = numParityBitsEncode(code.length());
-        if(parityMap.size() < numPBits){
-            expandParityMap(numPBits);
-        }
-        // set up encoded bit stream
-        List<Boolean> bits = code.getBits();
-        // initialize overall parity bit
-        bits.add(0,false);
-        // initialize index-based parity bits
-        int parityIndex = 1;
-        while(parityIndex <= Math.pow(2,numPBits-1)){
-            bits.add(parityIndex,false);
-            parityIndex*=2;
-        }
-        // determine values for parity bits
-        parityIndex = 1;
-        while(parityIndex <= Math.pow(2,numPBits-1)){
-            List<Boolean> coverage = collectCoveredBits(parityIndex, bits);
-            bits.set(parityIndex,setParityBit(coverage));
-            parityIndex*=2;
-        }
-        // determine value for overall parity bit
-        List<Boolean> coverage = new ArrayList<>();
-        for(int index = 1; index<bits.size(); index++){
-            coverage.add(bits.get(index));
-        }
-        bits.set(0,setParityBit(coverage));
-        // construct a new coder.code.BinaryCode object based on encoded bit stream
-        return new BinaryCode(bits);
-    }
-
-    private BinaryCode decode(BinaryCode code) {
-        int numPBits = numParityBitsDecode(code.length());
-        if(parityMap.size() < numPBits){
-            expandParityMap(numPBits);
-        }
-        List<Boolean> bits = code.getBits();
-        return extractDecodedBits(bits);
-    }
-
-    private BinaryCode extractDecodedBits(List<Boolean> bits){
-        List<Boolean> decodedBits = new ArrayList<>();
-        for(int i = 1; i<bits.size(); i++){
-            if(!parityMap.containsKey(i)){
-                decodedBits.add(bits.get(i));
-            }
+    private void writeBits(BinaryCode bits, ByteBuffer buffer){
+        int numBytes = (bits.length() + 7) >>> 3;
+        if(buffer.remaining() < numBytes){
+            throw new BufferOverflowException();
         }
-        return new BinaryCode(decodedBits);
+        BitArrays.writeBytes(bits.words(), buffer, buffer.position(), numBytes);
+        buffer.position(buffer.position() + numBytes);
     }
 
-    private int numParityBitsEncode(int wordLength){
-        int numBits = 0;
-        while(Math.pow(2,numBits) < wordLength+numBits+1){
-            numBits++;
+    /**
+     * @param dataIndex index of a payload bit
+     * @return index of the code bit holding it, skipping index 0 and the powers of two
+     */
+    static int codePosition(int dataIndex){
+        int position = dataIndex+1;
+        for(int parityIndex = 1; parityIndex<=position; parityIndex <<= 1){
+            position++;
         }
-        return numBits;
+        return position;
     }
 
-    private int numParityBitsDecode(int wordLength){
-        int numBits = 0;
-        while(Math.pow(2,numBits) < wordLength){
-            numBits++;
+    /**
+     * Sets a data bit of the encoded word starting at bit offset of words, flipping the parity bits
+     * covering it and the overall parity bit if it changes.
+     * @param position index of the data bit within the word
+     */
+    static void updateBit(long[] words, int offset, int position, boolean value){
+        if(BitArrays.getBit(words, offset+position) == value){
+            return;
+        }
+        BitArrays.flipBit(words, offset+position);
+        for(int rest = position; rest != 0; rest &= rest-1){
+            BitArrays.flipBit(words, offset+Integer.lowestOneBit(rest));
+        }
+        // the overall parity bit follows the number of bits flipped, 1 + bitCount(position)
+        if((Integer.bitCount(position) & 1) == 0){
+            BitArrays.flipBit(words, offset);
         }
-        return numBits;
     }
 
-    private void expandParityMap(int targetMapSize){
-        int maxIndex = (int) Math.pow(2,targetMapSize)-1;
-        for(int parity = parityMap.size()+1; parity<=targetMapSize; parity++){
-            parityMap.put((int)Math.pow(2,parity-1),new ArrayList<>());
-            for(int index = (int) Math.pow(2,parity-1); index<maxIndex; index++){
-                String binary = Integer.toBinaryString(index);
-                if(binary.charAt(binary.length()-parity)=='1'){
-                    parityMap.get((int)Math.pow(2,parity-1)).add(index);
-                }
-            }
+    private void checkLength(int numBits){
+        if(numBits < 0){
+            throw new IllegalArgumentException("Negative length: " + numBits);
         }
     }
 
-    private List<Boolean> collectCoveredBits(int parityIndex, List<Boolean> bits){
-        List<Boolean> coverage = new ArrayList<>();
-        for(int index : parityMap.get(parityIndex)){
-            if(bits.size()<=index) break;
-            if(index!=parityIndex) {
-                coverage.add(bits.get(index));
+    /**
+     * Locates a single corrupted bit from the syndrome of the bit stream,
+     * i.e. the XOR of the indices of all bits set to 1, which is 0 for an intact word.
+     * @return bit index of the detected single error.
+     *      Return -1 if no single error detected.
+     *      Return -2 if more than one errors detected.
+     */
+    private int locate(int syndrome, int length){
+        if(syndrome == 0){
+            return -1;
+        }
+        return syndrome < length ? syndrome : -2;
+    }
+
+    /**
+     * Computes the syndrome and the overall parity of code, one chunk of words at a time.
+     * @return the syndrome in the low 32 bits, and 1 at bit 32 if code holds an odd number of set bits
+     */
+    private long checkBits(BinaryCode code, ProgressTracker progress){
+        long[] words = code.words();
+        int syndrome = 0;
+        int parity = 0;
+        for(int from = 0; from<code.numWords(); from += CHUNK_WORDS){
+            int to = Math.min(from + CHUNK_WORDS, code.numWords());
+            syndrome ^= ParityKernels.get().indexSyndrome(words, from, to);
+            for(int w = from; w<to; w++){
+                parity ^= Long.bitCount(words[w]);
             }
+            progress.advance((long) (to - from) << 6);
+        }
+        return (syndrome & 0xFFFFFFFFL) | (long) (parity & 1) << 32;
+    }
+
+    /**
+     * Same as encode(String), on a bit sequence that is already parsed.
+     * @param code bit sequence to encode
+     * @return the encoded bit sequence
+     */
+    public BinaryCode encode(BinaryCode code){
+        return encode(code, null);
+    }
+
+    /**
+     * Same as encode(BinaryCode), reporting progress in bits processed to listener
+     * about once per ProgressTracker.CHUNK_BITS bits and stopping as soon as it asks to.
+     * @param listener receives progress; may be null
+     * @throws CancellationException if listener cancels the operation
+     */
+    public BinaryCode encode(BinaryCode code, ProgressListener listener){
+        long start = CoderMetrics.start();
+        int numPBits = numParityBitsEncode(code.length());
+        // set up encoded bit stream, leaving the overall parity bit (index 0)
+        // and the index-based parity bits (powers of two) initialized to false
+        BinaryCode encoded = new BinaryCode(code.length()+numPBits+1);
+        ProgressTracker progress = new ProgressTracker(listener,
+                code.length() + ((long) encoded.numWords() << 6));
+        copyDataRuns(code.words(), encoded.words(), encoded.length(), true, progress);
+        // parity bit 2^j covers the indices with bit j set, so with all parity bits still clear
+        // bit j of the syndrome is exactly the value parity bit 2^j must take
+        long checks = checkBits(encoded, progress);
+        int syndrome = (int) checks;
+        // overall parity bit: parity of the data bits, flipped once by each parity bit set
+        encoded.setBit(0, (((checks >>> 32) ^ Integer.bitCount(syndrome)) & 1) != 0);
+        while(syndrome != 0){
+            encoded.setBit(Integer.lowestOneBit(syndrome),true);
+            syndrome &= syndrome-1;
         }
-        return coverage;
+        CoderMetrics.record(CoderMetrics.Operation.ENCODE, start, 1, code.length());
+        return encoded;
+    }
+
+    /**
+     * @return the payload of code, without correction
+     */
+    BinaryCode decode(BinaryCode code) {
+        return decode(code, new ProgressTracker(null, 0));
     }
 
-    private boolean validateParityBit(boolean parityBit, Collection<Boolean> bits){
-        boolean expected = setParityBit(bits);
-        return parityBit==expected;
+    private BinaryCode decode(BinaryCode code, ProgressTracker progress){
+        long start = CoderMetrics.start();
+        BinaryCode decoded = new BinaryCode(decodedLength(code.length()));
+        copyDataRuns(code.words(), decoded.words(), code.length(), false, progress);
+        CoderMetrics.record(CoderMetrics.Operation.DECODE, start, 1, decoded.length());
+        return decoded;
     }
 
-    private boolean setParityBit(Collection<Boolean> bits){
-        int count = 0;
-        for(Boolean bit : bits){
-            count = bit? count+1 : count;
+    /**
+     * Moves the data bits between their packed form and the encoded layout. The data bits of an encoded word
+     * of codeLength bits fill the runs 2^(j-1)+1 .. 2^j-1 between consecutive parity bits, for j = 2, 3, ...
+     * @param toEncoded true to scatter data into the encoded layout, false to gather it back
+     * @param progress advanced by the number of data bits copied, one chunk at a time
+     */
+    private void copyDataRuns(long[] from, long[] to, int codeLength, boolean toEncoded, ProgressTracker progress){
+        int dataIndex = 0;
+        for(int j = 2; (1L << (j-1))+1 < codeLength; j++){
+            int end = (int) Math.min(1L << j, codeLength);
+            for(int start = (1 << (j-1))+1; start<end; start += ProgressTracker.CHUNK_BITS){
+                int count = Math.min(end - start, ProgressTracker.CHUNK_BITS);
+                if(toEncoded){
+                    BitArrays.copy(from, dataIndex, to, start, count);
+                }else{
+                    BitArrays.copy(from, start, to, dataIndex, count);
+                }
+                dataIndex += count;
+                progress.advance(count);
+            }
         }
-        return count%2!=0;
+    }
+
+    private int numParityBitsEncode(int wordLength){
+        int numBits = 0;
+        while((1L << numBits) < (long) wordLength+numBits+1){
+            numBits++;
+        }
+        return numBits;
     }
 }
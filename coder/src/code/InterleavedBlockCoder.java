@@ -0,0 +1,166 @@
+package code;
+
+import exception.DoubleBitErrorException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Interleaved variant of SecdedBlockCoder for media failing in bursts of adjacent bits.
+ * Blocks are grouped into frames of getDepth() consecutive blocks, and a frame is stored bit-interleaved:
+ * bit i of block b of the frame lands at bit i * getDepth() + b of the frame. Any burst of up to getDepth()
+ * adjacent bits thus corrupts at most one bit per block, which each block corrects on its own.
+ * Interleaving is done 64 blocks at a time by transposing 64x64 bit matrices, so it costs a few word
+ * operations per code bit on top of the block coder. A frame is packed least significant bit first
+ * into getFrameCodeBytes() bytes. Instances are immutable and may be shared between threads.
+ */
+public class InterleavedBlockCoder {
+
+    // maximum depth, the number of rows of a transposed matrix
+    public static final int MAX_DEPTH = 64;
+
+    private final SecdedBlockCoder myCoder;
+    private final int myDepth;
+
+    /**
+     * @param coder block coder; must use a whole number of data bytes per block
+     * @param depth number of blocks per frame, from 1 to MAX_DEPTH; the longest burst a frame tolerates
+     */
+    public InterleavedBlockCoder(SecdedBlockCoder coder, int depth){
+        if(depth < 1 || depth > MAX_DEPTH){
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH + ": " + depth);
+        }
+        // fails fast on blocks that are not byte-aligned
+        coder.getDataBytes();
+        myCoder = coder;
+        myDepth = depth;
+    }
+
+    public SecdedBlockCoder getCoder(){
+        return myCoder;
+    }
+
+    public int getDepth(){
+        return myDepth;
+    }
+
+    /**
+     * @return number of payload bytes per frame
+     */
+    public int getFrameDataBytes(){
+        return myDepth * myCoder.getDataBytes();
+    }
+
+    /**
+     * @return number of bytes an encoded frame occupies; unused high bits of the last byte are 0
+     */
+    public int getFrameCodeBytes(){
+        return (myDepth * myCoder.getCodeBits() + 7) / 8;
+    }
+
+    /**
+     * Encodes as many whole frames as fit from the remaining bytes of data into the remaining bytes of code.
+     * Both positions are advanced past the processed frames; a partial last frame must be padded by the caller.
+     * @param data payload bytes, getFrameDataBytes() per frame
+     * @param code receives getFrameCodeBytes() per frame
+     * @return number of encoded frames
+     */
+    public int encodeFrames(ByteBuffer data, ByteBuffer code){
+        int numFrames = Math.min(data.remaining() / getFrameDataBytes(), code.remaining() / getFrameCodeBytes());
+        ByteBuffer blocks = ByteBuffer.allocate(myDepth * myCoder.getCodeBytes());
+        long[] matrix = new long[BitArrays.numWords(myCoder.getCodeBits()) * MAX_DEPTH];
+        long[] frame = new long[BitArrays.numWords(myDepth * myCoder.getCodeBits())];
+        for(int f = 0; f<numFrames; f++){
+            blocks.clear();
+            myCoder.encodeBlocks(data, blocks);
+            interleave(blocks, matrix, frame);
+            BitArrays.writeBytes(frame, code, code.position(), getFrameCodeBytes());
+            code.position(code.position() + getFrameCodeBytes());
+        }
+        return numFrames;
+    }
+
+    /**
+     * Decodes as many whole frames as fit from the remaining bytes of code into the remaining bytes of data,
+     * correcting one corrupted bit per block. The code bytes are left unchanged.
+     * Both positions are advanced past the processed frames.
+     * @param code encoded bytes, getFrameCodeBytes() per frame
+     * @param data receives getFrameDataBytes() per frame
+     * @return number of corrected blocks
+     * @throws DoubleBitErrorException if a block holds an uncorrectable corruption;
+     *          both positions are then left at the start of its frame
+     */
+    public int decodeFrames(ByteBuffer code, ByteBuffer data) throws DoubleBitErrorException {
+        int numFrames = Math.min(data.remaining() / getFrameDataBytes(), code.remaining() / getFrameCodeBytes());
+        ByteBuffer blocks = ByteBuffer.allocate(myDepth * myCoder.getCodeBytes());
+        long[] matrix = new long[BitArrays.numWords(myCoder.getCodeBits()) * MAX_DEPTH];
+        long[] frame = new long[BitArrays.numWords(myDepth * myCoder.getCodeBits())];
+        int corrected = 0;
+        for(int f = 0; f<numFrames; f++){
+            BitArrays.readBytes(code, code.position(), frame, getFrameCodeBytes());
+            deinterleave(frame, matrix, blocks);
+            int dataStart = data.position();
+            try {
+                corrected += myCoder.decodeBlocks(blocks, data);
+            }catch (DoubleBitErrorException e){
+                data.position(dataStart);
+                throw e;
+            }
+            code.position(code.position() + getFrameCodeBytes());
+        }
+        return corrected;
+    }
+
+    /**
+     * Interleaves the encoded blocks of one frame.
+     * @param blocks the getDepth() encoded blocks, as written by SecdedBlockCoder.encodeBlocks
+     * @param matrix scratch space of one 64x64 matrix per word of a block
+     * @param frame receives the interleaved frame
+     */
+    private void interleave(ByteBuffer blocks, long[] matrix, long[] frame){
+        int codeBits = myCoder.getCodeBits();
+        int numWords = BitArrays.numWords(codeBits);
+        long[] codeBlock = new long[numWords];
+        Arrays.fill(matrix, 0L);
+        // row w * 64 + b of the matrices holds word w of block b; rows of missing blocks stay 0
+        for(int b = 0; b<myDepth; b++){
+            BitArrays.readBytes(blocks, b * myCoder.getCodeBytes(), codeBlock, myCoder.getCodeBytes());
+            BitArrays.clearFrom(codeBlock, codeBits);
+            for(int w = 0; w<numWords; w++){
+                matrix[w * MAX_DEPTH + b] = codeBlock[w];
+            }
+        }
+        // after transposing, row i holds code bit i of every block, bit b coming from block b
+        for(int w = 0; w<numWords; w++){
+            BitMatrix.transpose64(matrix, w * MAX_DEPTH);
+        }
+        for(int i = 0; i<codeBits; i++){
+            BitArrays.setLong(frame, i * myDepth, myDepth, matrix[i]);
+        }
+    }
+
+    /**
+     * Reverses interleave.
+     * @param frame one interleaved frame
+     * @param matrix scratch space of one 64x64 matrix per word of a block
+     * @param blocks receives the getDepth() encoded blocks, as read by SecdedBlockCoder.decodeBlocks
+     */
+    private void deinterleave(long[] frame, long[] matrix, ByteBuffer blocks){
+        int codeBits = myCoder.getCodeBits();
+        int numWords = BitArrays.numWords(codeBits);
+        for(int i = 0; i<matrix.length; i++){
+            matrix[i] = i < codeBits ? BitArrays.getLong(frame, i * myDepth, myDepth) : 0L;
+        }
+        for(int w = 0; w<numWords; w++){
+            BitMatrix.transpose64(matrix, w * MAX_DEPTH);
+        }
+        long[] codeBlock = new long[numWords];
+        for(int b = 0; b<myDepth; b++){
+            for(int w = 0; w<numWords; w++){
+                codeBlock[w] = matrix[w * MAX_DEPTH + b];
+            }
+            BitArrays.writeBytes(codeBlock, blocks, b * myCoder.getCodeBytes(), myCoder.getCodeBytes());
+        }
+        blocks.clear();
+    }
+}
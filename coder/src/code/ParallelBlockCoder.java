@@ -0,0 +1,194 @@
+package code;
+
+import exception.DoubleBitErrorException;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the byte-oriented bulk operations of a SecdedBlockCoder on a ForkJoinPool.
+ * The remaining whole blocks are split into ranges that are processed by work-stealing tasks; since block i
+ * always lives at a fixed offset of the input and output buffers, each task reads and writes its own
+ * region of the shared buffers and no copying or merging is needed.
+ */
+public class ParallelBlockCoder {
+
+    // blocks processed by a task without splitting further
+    static final int DEFAULT_LEAF_BLOCKS = 4096;
+    // no uncorrectable block found
+    private static final long NONE = Long.MAX_VALUE;
+
+    private final SecdedBlockCoder myCoder;
+    private final ForkJoinPool myPool;
+    private final int myLeafBlocks;
+
+    public ParallelBlockCoder(SecdedBlockCoder coder){
+        this(coder, ForkJoinPool.commonPool(), DEFAULT_LEAF_BLOCKS);
+    }
+
+    /**
+     * @param coder block coder; must use a whole number of data bytes per block
+     * @param pool pool running the tasks
+     * @param leafBlocks number of blocks below which a range is processed without splitting
+     */
+    public ParallelBlockCoder(SecdedBlockCoder coder, ForkJoinPool pool, int leafBlocks){
+        if(leafBlocks < 1){
+            throw new IllegalArgumentException("Leaf must hold at least one block: " + leafBlocks);
+        }
+        myCoder = coder;
+        myPool = pool;
+        myLeafBlocks = leafBlocks;
+    }
+
+    public SecdedBlockCoder getCoder(){
+        return myCoder;
+    }
+
+    /**
+     * Parallel counterpart of SecdedBlockCoder.encodeBlocks.
+     * @return number of encoded blocks
+     */
+    public int encodeBlocks(ByteBuffer data, ByteBuffer code){
+        int numBlocks = Math.min(data.remaining() / myCoder.getDataBytes(), code.remaining() / myCoder.getCodeBytes());
+        invoke(Operation.ENCODE, code, data, numBlocks, new AtomicLong(NONE));
+        advance(code, data, numBlocks);
+        return numBlocks;
+    }
+
+    /**
+     * Parallel counterpart of SecdedBlockCoder.decodeBlocks. Unlike the sequential method, all blocks are
+     * processed even if one is uncorrectable, and the payload bytes of an uncorrectable block are unspecified.
+     * @return number of corrected blocks
+     * @throws DoubleBitErrorException if at least one block holds an uncorrectable corruption, giving the index
+     *          of the first one counted from the initial position of code
+     */
+    public long decodeBlocks(ByteBuffer code, ByteBuffer data) throws DoubleBitErrorException {
+        int numBlocks = Math.min(data.remaining() / myCoder.getDataBytes(), code.remaining() / myCoder.getCodeBytes());
+        AtomicLong firstUncorrectable = new AtomicLong(NONE);
+        long corrected = invoke(Operation.DECODE, code, data, numBlocks, firstUncorrectable);
+        advance(code, data, numBlocks);
+        if(firstUncorrectable.get() != NONE){
+            throw new DoubleBitErrorException(firstUncorrectable.get());
+        }
+        return corrected;
+    }
+
+    /**
+     * Parallel counterpart of SecdedBlockCoder.correctBlocks, repairing single-bit corruptions in place.
+     * @return number of corrected blocks
+     * @throws DoubleBitErrorException if at least one block holds an uncorrectable corruption, giving the index
+     *          of the first one counted from the initial position of code; all correctable blocks have been
+     *          repaired when it is thrown
+     */
+    public long scrubBlocks(ByteBuffer code) throws DoubleBitErrorException {
+        int numBlocks = code.remaining() / myCoder.getCodeBytes();
+        AtomicLong firstUncorrectable = new AtomicLong(NONE);
+        long corrected = invoke(Operation.SCRUB, code, null, numBlocks, firstUncorrectable);
+        code.position(code.position() + numBlocks * myCoder.getCodeBytes());
+        if(firstUncorrectable.get() != NONE){
+            throw new DoubleBitErrorException(firstUncorrectable.get());
+        }
+        return corrected;
+    }
+
+    /**
+     * Runs operation on the first numBlocks blocks from the positions of code and data; data may be null for SCRUB.
+     */
+    private long invoke(Operation operation, ByteBuffer code, ByteBuffer data, int numBlocks,
+                        AtomicLong firstUncorrectable){
+        return myPool.invoke(new BlockTask(myCoder, myLeafBlocks, operation, code, code.position(),
+                data, data == null ? 0 : data.position(), 0, numBlocks, firstUncorrectable));
+    }
+
+    private void advance(ByteBuffer code, ByteBuffer data, int numBlocks){
+        code.position(code.position() + numBlocks * myCoder.getCodeBytes());
+        data.position(data.position() + numBlocks * myCoder.getDataBytes());
+    }
+
+    private enum Operation {
+        ENCODE,
+        DECODE,
+        SCRUB
+    }
+
+    /**
+     * Processes blocks [fromBlock, toBlock), relative to the code and data offsets, returning the number of corrected blocks.
+     */
+    private static class BlockTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SecdedBlockCoder myCoder;
+        private final int myLeafBlocks;
+        private final Operation myOperation;
+        private final ByteBuffer myCode;
+        private final int myCodeOffset;
+        private final ByteBuffer myData;
+        private final int myDataOffset;
+        private final int myFromBlock;
+        private final int myToBlock;
+        // lowered to the index of the first uncorrectable block
+        private final AtomicLong myFirstUncorrectable;
+
+        BlockTask(SecdedBlockCoder coder, int leafBlocks, Operation operation, ByteBuffer code, int codeOffset,
+                  ByteBuffer data, int dataOffset, int fromBlock, int toBlock, AtomicLong firstUncorrectable){
+            myCoder = coder;
+            myLeafBlocks = leafBlocks;
+            myOperation = operation;
+            myCode = code;
+            myCodeOffset = codeOffset;
+            myData = data;
+            myDataOffset = dataOffset;
+            myFromBlock = fromBlock;
+            myToBlock = toBlock;
+            myFirstUncorrectable = firstUncorrectable;
+        }
+
+        @Override
+        protected Long compute(){
+            if(myToBlock - myFromBlock <= myLeafBlocks){
+                return processRange();
+            }
+            int middle = (myFromBlock + myToBlock) >>> 1;
+            BlockTask left = new BlockTask(myCoder, myLeafBlocks, myOperation, myCode, myCodeOffset,
+                    myData, myDataOffset, myFromBlock, middle, myFirstUncorrectable);
+            BlockTask right = new BlockTask(myCoder, myLeafBlocks, myOperation, myCode, myCodeOffset,
+                    myData, myDataOffset, middle, myToBlock, myFirstUncorrectable);
+            left.fork();
+            long corrected = right.compute();
+            return corrected + left.join();
+        }
+
+        private long processRange(){
+            int codeBytes = myCoder.getCodeBytes();
+            // each task works on its own view so that positions and limits are not shared
+            ByteBuffer code = myCode.duplicate().order(myCode.order());
+            code.limit(myCodeOffset + myToBlock * codeBytes).position(myCodeOffset + myFromBlock * codeBytes);
+            if(myOperation == Operation.SCRUB){
+                return (long) myCoder.correctBlocks(code, myFromBlock, myFirstUncorrectable);
+            }
+            int dataBytes = myCoder.getDataBytes();
+            ByteBuffer data = myData.duplicate().order(myData.order());
+            data.limit(myDataOffset + myToBlock * dataBytes).position(myDataOffset + myFromBlock * dataBytes);
+            if(myOperation == Operation.ENCODE){
+                myCoder.encodeBlocks(data, code);
+                return 0L;
+            }
+            long corrected = 0;
+            while(code.hasRemaining()){
+                try {
+                    corrected += myCoder.decodeBlocks(code, data);
+                }catch (DoubleBitErrorException e){
+                    // skip the uncorrectable block and carry on with the rest of the range
+                    long block = (code.position() - myCodeOffset) / codeBytes;
+                    myFirstUncorrectable.accumulateAndGet(block, Math::min);
+                    code.position(code.position() + codeBytes);
+                    data.position(data.position() + dataBytes);
+                }
+            }
+            return corrected;
+        }
+    }
+}
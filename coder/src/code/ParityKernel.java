@@ -0,0 +1,27 @@
+package code;
+
+/**
+ * Bulk parity computations behind the word and block coders. Implementations must give bit-for-bit
+ * identical results; ParityKernels picks the fastest one available at runtime.
+ */
+interface ParityKernel {
+
+    /**
+     * Computes mask parities for a batch of items laid out as planes: word s of item i is planes[s*stride + i].
+     * Bit j of out[i] is set to the parity of the bits of item i selected by masks[j].
+     * @param planes items of masks[j].length words each, one plane per word
+     * @param stride distance between two planes, at least count
+     * @param count number of items
+     * @param masks at most 64 masks, all of the same number of words
+     * @param out receives one parity pattern per item
+     */
+    void maskParities(long[] planes, int stride, int count, long[][] masks, long[] out);
+
+    /**
+     * @param words packed bit-vector
+     * @param fromWord first word to include
+     * @param toWord end of the words to include, exclusive
+     * @return XOR of the indices, counted from the start of words, of all bits set to 1 in the included words
+     */
+    int indexSyndrome(long[] words, int fromWord, int toWord);
+}
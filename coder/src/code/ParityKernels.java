@@ -0,0 +1,35 @@
+package code;
+
+/**
+ * Selects the ParityKernel used by the coders, once per JVM. The vectorized kernel is used when the
+ * jdk.incubator.vector module has been added to the boot layer (--add-modules jdk.incubator.vector),
+ * the scalar kernel otherwise. Setting the system property code.parityKernel to "scalar" or "vector"
+ * forces a choice; forcing "vector" without the module falls back to scalar as well.
+ */
+final class ParityKernels {
+
+    static final String KERNEL_PROPERTY = "code.parityKernel";
+
+    private static final ParityKernel KERNEL = select();
+
+    private ParityKernels(){
+    }
+
+    static ParityKernel get(){
+        return KERNEL;
+    }
+
+    private static ParityKernel select(){
+        String choice = System.getProperty(KERNEL_PROPERTY, "");
+        boolean vectorAvailable = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        if(!choice.equals("scalar") && vectorAvailable){
+            try {
+                // loaded reflectively so that this class links without the Vector API
+                return (ParityKernel) Class.forName("code.VectorParityKernel").getDeclaredConstructor().newInstance();
+            }catch (ReflectiveOperationException | LinkageError e){
+                // fall through to the portable kernel
+            }
+        }
+        return new ScalarParityKernel();
+    }
+}
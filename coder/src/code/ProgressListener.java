@@ -0,0 +1,16 @@
+package code;
+
+/**
+ * Receives the progress of a long-running coder operation, which it may cancel.
+ * Operations call it from their own thread, about once per chunk of work.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * @param done units of work done so far
+     * @param total units of work of the whole operation
+     * @return true to go on, false to cancel the operation, which then throws a CancellationException
+     */
+    boolean progress(long done, long total);
+}
@@ -0,0 +1,36 @@
+package code;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Accumulates the work done by an operation and forwards it to an optional ProgressListener.
+ */
+final class ProgressTracker {
+
+    // bits processed between two reports to the listener
+    static final int CHUNK_BITS = 1 << 20;
+
+    private final ProgressListener myListener;
+    private final long myTotal;
+    private long myDone;
+
+    /**
+     * @param listener receives progress; may be null
+     * @param total units of work of the whole operation
+     */
+    ProgressTracker(ProgressListener listener, long total){
+        myListener = listener;
+        myTotal = total;
+    }
+
+    /**
+     * Records units of work done.
+     * @throws CancellationException if the listener cancels the operation
+     */
+    void advance(long units){
+        myDone += units;
+        if(myListener != null && !myListener.progress(Math.min(myDone, myTotal), myTotal)){
+            throw new CancellationException();
+        }
+    }
+}
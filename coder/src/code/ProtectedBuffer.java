@@ -0,0 +1,164 @@
+package code;
+
+import exception.DoubleBitErrorException;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Byte-addressable off-heap buffer whose contents are kept SECDED-encoded in an EccRegion, for long-lived data
+ * that must survive bit rot. Writes re-encode the blocks they touch; reads check and correct only the blocks
+ * they touch, never the whole buffer.
+ * With verify-on-read trust enabled, a block checked or written during the current epoch is trusted and read
+ * without checking until newEpoch() is called, so that hot blocks are checked once per epoch instead of on
+ * every access. Corruptions arising within an epoch in trusted blocks are then only caught in the next one,
+ * e.g. by calling newEpoch() on a timer or running a Scrubber over getRegion().
+ * Instances may be shared between threads; accesses to the same bytes are not ordered against each other.
+ */
+public class ProtectedBuffer {
+
+    private final EccRegion myRegion;
+    private final int myBlockBytes;
+    private final long myCapacity;
+    private final boolean myTrustVerified;
+    // epoch during which each block was last checked or written; 0 is never
+    private final AtomicIntegerArray myVerifiedEpochs;
+    private final AtomicInteger myEpoch = new AtomicInteger(1);
+
+    /**
+     * @param coder block coder; must use a whole number of data bytes per block
+     * @param capacity number of bytes, initially 0
+     * @param trustVerified whether blocks checked during the current epoch are read without checking
+     */
+    public ProtectedBuffer(SecdedBlockCoder coder, long capacity, boolean trustVerified){
+        if(capacity < 0){
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+        myBlockBytes = coder.getDataBytes();
+        long numBlocks = (capacity + myBlockBytes - 1) / myBlockBytes;
+        if(numBlocks > Integer.MAX_VALUE){
+            throw new IllegalArgumentException("Capacity too large: " + capacity);
+        }
+        myRegion = new EccRegion(coder, (int) numBlocks);
+        myCapacity = capacity;
+        myTrustVerified = trustVerified;
+        myVerifiedEpochs = trustVerified ? new AtomicIntegerArray((int) numBlocks) : null;
+    }
+
+    /**
+     * @return a buffer of (72,64) blocks checking every read
+     */
+    public static ProtectedBuffer allocate(long capacity){
+        return new ProtectedBuffer(SecdedBlockCoder.forDataBits(SecdedBlockCoder.DATA_BITS_64), capacity, false);
+    }
+
+    public long capacity(){
+        return myCapacity;
+    }
+
+    public boolean isTrustVerified(){
+        return myTrustVerified;
+    }
+
+    /**
+     * @return the underlying region, e.g. to scrub it
+     */
+    public EccRegion getRegion(){
+        return myRegion;
+    }
+
+    /**
+     * Starts a new epoch, so that every block is checked again on its next read.
+     */
+    public void newEpoch(){
+        myEpoch.incrementAndGet();
+    }
+
+    /**
+     * @throws DoubleBitErrorException if the block holding the byte is uncorrectable
+     */
+    public byte get(long index) throws DoubleBitErrorException {
+        byte[] value = new byte[1];
+        get(index, value, 0, 1);
+        return value[0];
+    }
+
+    /**
+     * @throws DoubleBitErrorException if the block holding the byte is uncorrectable
+     */
+    public void put(long index, byte value) throws DoubleBitErrorException {
+        put(index, new byte[]{value}, 0, 1);
+    }
+
+    /**
+     * Reads length bytes starting at index into dst, checking and correcting the blocks holding them.
+     * @throws DoubleBitErrorException if one of these blocks is uncorrectable;
+     *          dst may then hold part of the bytes
+     */
+    public void get(long index, byte[] dst, int offset, int length) throws DoubleBitErrorException {
+        Objects.checkFromIndexSize(index, length, myCapacity);
+        Objects.checkFromIndexSize(offset, length, dst.length);
+        ByteBuffer scratch = ByteBuffer.allocate(myBlockBytes);
+        while(length > 0){
+            int block = (int) (index / myBlockBytes);
+            int start = (int) (index % myBlockBytes);
+            int count = Math.min(length, myBlockBytes - start);
+            if(count == myBlockBytes){
+                readBlock(block, ByteBuffer.wrap(dst, offset, count));
+            }else{
+                scratch.clear();
+                readBlock(block, scratch);
+                scratch.position(start);
+                scratch.get(dst, offset, count);
+            }
+            index += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Writes length bytes from src starting at index, re-encoding the blocks holding them.
+     * @throws DoubleBitErrorException if a partially overwritten block is uncorrectable; it is then left
+     *          unchanged, and the blocks before it hold the new bytes
+     */
+    public void put(long index, byte[] src, int offset, int length) throws DoubleBitErrorException {
+        Objects.checkFromIndexSize(index, length, myCapacity);
+        Objects.checkFromIndexSize(offset, length, src.length);
+        while(length > 0){
+            int block = (int) (index / myBlockBytes);
+            int start = (int) (index % myBlockBytes);
+            int count = Math.min(length, myBlockBytes - start);
+            if(count == myBlockBytes){
+                myRegion.writeBlock(block, ByteBuffer.wrap(src, offset, count));
+            }else{
+                myRegion.updateBlock(block, start, ByteBuffer.wrap(src, offset, count), count);
+            }
+            if(myTrustVerified){
+                myVerifiedEpochs.lazySet(block, myEpoch.get());
+            }
+            index += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Decodes one block into data, checking it unless it is trusted.
+     */
+    private void readBlock(int block, ByteBuffer data) throws DoubleBitErrorException {
+        if(!myTrustVerified){
+            myRegion.readBlock(block, data);
+            return;
+        }
+        int epoch = myEpoch.get();
+        if(myVerifiedEpochs.get(block) == epoch){
+            myRegion.readBlockUnchecked(block, data);
+        }else{
+            myRegion.readBlock(block, data);
+            myVerifiedEpochs.lazySet(block, epoch);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package code;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limiter shared by several threads: each acquisition reserves the next free time slot
+ * and sleeps until it starts, so that the permits are spread evenly at the configured rate.
+ */
+final class RateLimiter {
+
+    private final double myNanosPerPermit;
+    private final AtomicLong myNextFree = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param permitsPerSecond rate; 0 or less for no limit
+     */
+    RateLimiter(double permitsPerSecond){
+        myNanosPerPermit = permitsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / permitsPerSecond : 0.0;
+    }
+
+    void acquire(int permits) throws InterruptedException {
+        if(myNanosPerPermit == 0.0){
+            return;
+        }
+        long cost = (long) (permits * myNanosPerPermit);
+        long now = System.nanoTime();
+        long slot = myNextFree.getAndUpdate(next -> Math.max(next, now) + cost);
+        long wait = slot - now;
+        if(wait > 0){
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
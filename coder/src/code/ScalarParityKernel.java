@@ -0,0 +1,71 @@
+package code;
+
+/**
+ * Portable ParityKernel using Long.bitCount, one word at a time.
+ */
+final class ScalarParityKernel implements ParityKernel {
+
+    // bit positions within a 64-bit word whose index has bit j set, for j = 0..5
+    private static final long[] INDEX_BIT_MASKS = {
+            0xAAAAAAAAAAAAAAAAL,
+            0xCCCCCCCCCCCCCCCCL,
+            0xF0F0F0F0F0F0F0F0L,
+            0xFF00FF00FF00FF00L,
+            0xFFFF0000FFFF0000L,
+            0xFFFFFFFF00000000L
+    };
+
+    @Override
+    public void maskParities(long[] planes, int stride, int count, long[][] masks, long[] out){
+        maskParities(planes, stride, 0, count, masks, out);
+    }
+
+    /**
+     * Same as maskParities on items [from, to) only, e.g. the tail left over by a vectorized loop.
+     */
+    static void maskParities(long[] planes, int stride, int from, int to, long[][] masks, long[] out){
+        for(int i = from; i<to; i++){
+            long parities = 0L;
+            for(int j = 0; j<masks.length; j++){
+                long[] mask = masks[j];
+                long folded = 0L;
+                for(int s = 0; s<mask.length; s++){
+                    folded ^= planes[s*stride + i] & mask[s];
+                }
+                parities |= (long) (Long.bitCount(folded) & 1) << j;
+            }
+            out[i] = parities;
+        }
+    }
+
+    /**
+     * Bit j of the syndrome is the parity of all set bits whose index has bit j set. For j >= 6 that depends
+     * only on the word index, so each word contributes its index once if it holds an odd number of set bits;
+     * for j < 6 the contribution is linear in the word content, so it is taken once from the XOR of all words.
+     */
+    @Override
+    public int indexSyndrome(long[] words, int fromWord, int toWord){
+        long folded = 0L;
+        int syndrome = 0;
+        for(int w = fromWord; w<toWord; w++){
+            long word = words[w];
+            folded ^= word;
+            if((Long.bitCount(word) & 1) != 0){
+                syndrome ^= w << 6;
+            }
+        }
+        return syndrome | lowSyndrome(folded);
+    }
+
+    /**
+     * @param folded XOR of all words of a bit-vector
+     * @return the low 6 bits of the syndrome of that bit-vector
+     */
+    static int lowSyndrome(long folded){
+        int syndrome = 0;
+        for(int j = 0; j<INDEX_BIT_MASKS.length; j++){
+            syndrome |= (Long.bitCount(folded & INDEX_BIT_MASKS[j]) & 1) << j;
+        }
+        return syndrome;
+    }
+}
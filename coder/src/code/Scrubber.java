@@ -0,0 +1,243 @@
+package code;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background scrubber of an EccRegion: sweeps the whole region periodically with a pool of worker threads,
+ * repairing single-bit corruptions before a second hit on the same block makes it uncorrectable.
+ * The scan rate is capped in blocks per second, sweeps can be paused and resumed, and the statistics of
+ * the last sweep are kept. Scrubbing uses the region's optimistic reads, so it does not block readers or
+ * writers of intact blocks.
+ */
+public class Scrubber implements Closeable {
+
+    // blocks scanned by a worker task
+    static final int CHUNK_BLOCKS = 4096;
+    // blocks paid for at a time to the rate limiter
+    private static final int PERMIT_BLOCKS = 64;
+
+    private final EccRegion myRegion;
+    private final ExecutorService myWorkers;
+    private final ScheduledExecutorService myScheduler;
+    private final RateLimiter myRateLimiter;
+    private final long mySweepIntervalMillis;
+    private final Object myPauseLock = new Object();
+    private final AtomicLong mySweeps = new AtomicLong();
+    private volatile boolean myPaused;
+    private volatile boolean myClosed;
+    private volatile SweepStatistics myLastSweep;
+    private volatile RuntimeException myLastFailure;
+    private ScheduledFuture<?> mySchedule;
+
+    /**
+     * @param region region to scrub
+     * @param workers number of worker threads
+     * @param blocksPerSecond maximum scan rate over all workers; 0 for no limit
+     * @param sweepIntervalMillis delay between the end of a sweep and the start of the next one
+     */
+    public Scrubber(EccRegion region, int workers, double blocksPerSecond, long sweepIntervalMillis){
+        if(workers < 1){
+            throw new IllegalArgumentException("At least one worker is needed: " + workers);
+        }
+        myRegion = region;
+        myRateLimiter = new RateLimiter(blocksPerSecond);
+        mySweepIntervalMillis = sweepIntervalMillis;
+        myWorkers = Executors.newFixedThreadPool(workers, runnable -> daemon(runnable, "scrubber-worker"));
+        myScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "scrubber"));
+    }
+
+    /**
+     * Starts sweeping in the background, the first sweep starting immediately.
+     */
+    public synchronized void start(){
+        if(myClosed){
+            throw new IllegalStateException("Scrubber is closed");
+        }
+        if(mySchedule == null){
+            mySchedule = myScheduler.scheduleWithFixedDelay(this::backgroundSweep, 0, mySweepIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Suspends scanning; a sweep in progress stops until resume is called, each worker within PERMIT_BLOCKS (64)
+     * blocks of its current one.
+     */
+    public void pause(){
+        myPaused = true;
+    }
+
+    public void resume(){
+        synchronized(myPauseLock){
+            myPaused = false;
+            myPauseLock.notifyAll();
+        }
+    }
+
+    public boolean isPaused(){
+        return myPaused;
+    }
+
+    /**
+     * @return statistics of the last finished sweep, or null before the first one
+     */
+    public SweepStatistics getLastSweep(){
+        return myLastSweep;
+    }
+
+    /**
+     * Background sweeps keep running on schedule after one fails; the failure is kept here instead.
+     * @return the exception that ended the last failed background sweep, or null if none failed
+     */
+    public RuntimeException getLastFailure(){
+        return myLastFailure;
+    }
+
+    /**
+     * Runs one sweep on the worker threads and waits for it, independently of the background schedule.
+     * @return statistics of the sweep
+     * @throws InterruptedException if interrupted while waiting; the sweep is cancelled
+     * @throws IllegalStateException if the scrubber is closed
+     */
+    public SweepStatistics sweep() throws InterruptedException {
+        if(myClosed){
+            throw new IllegalStateException("Scrubber is closed");
+        }
+        long sweep = mySweeps.incrementAndGet();
+        long startMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        List<Callable<ChunkResult>> tasks = new ArrayList<>();
+        for(int first = 0; first<myRegion.getNumBlocks(); first += CHUNK_BLOCKS){
+            int from = first;
+            int to = (int) Math.min((long) first + CHUNK_BLOCKS, myRegion.getNumBlocks());
+            tasks.add(() -> scrubChunk(from, to));
+        }
+        long scanned = 0;
+        long corrected = 0;
+        int[] uncorrectable = new int[0];
+        boolean complete = true;
+        List<Future<ChunkResult>> futures;
+        try {
+            futures = myWorkers.invokeAll(tasks);
+        }catch (RejectedExecutionException e){
+            // closed while submitting
+            throw new IllegalStateException("Scrubber is closed", e);
+        }
+        for(Future<ChunkResult> future : futures){
+            ChunkResult result;
+            try {
+                result = future.get();
+            }catch (ExecutionException e){
+                throw new IllegalStateException("Scrubbing failed", e.getCause());
+            }catch (CancellationException e){
+                complete = false;
+                continue;
+            }
+            scanned += result.myScanned;
+            corrected += result.myCorrected;
+            complete &= result.myComplete;
+            int length = uncorrectable.length;
+            uncorrectable = Arrays.copyOf(uncorrectable, length + result.myUncorrectable.length);
+            System.arraycopy(result.myUncorrectable, 0, uncorrectable, length, result.myUncorrectable.length);
+        }
+        SweepStatistics statistics = new SweepStatistics(sweep, startMillis, System.nanoTime() - startNanos,
+                scanned, corrected, uncorrectable, complete);
+        myLastSweep = statistics;
+        return statistics;
+    }
+
+    /**
+     * Stops the background schedule and the workers; a sweep in progress ends at its current block.
+     */
+    @Override
+    public void close(){
+        myClosed = true;
+        resume();
+        myScheduler.shutdownNow();
+        myWorkers.shutdownNow();
+    }
+
+    private void backgroundSweep(){
+        try {
+            sweep();
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }catch (RuntimeException e){
+            // rethrowing would cancel every later background sweep
+            if(!myClosed){
+                myLastFailure = e;
+            }
+        }
+    }
+
+    private ChunkResult scrubChunk(int from, int to){
+        ChunkResult result = new ChunkResult();
+        long[] codeBlock = new long[BitArrays.numWords(myRegion.getCoder().getCodeBits())];
+        int[] uncorrectable = new int[4];
+        int numUncorrectable = 0;
+        for(int block = from; block<to; block++){
+            if((block - from) % PERMIT_BLOCKS == 0){
+                try {
+                    awaitResumed();
+                    myRateLimiter.acquire(Math.min(PERMIT_BLOCKS, to - block));
+                }catch (InterruptedException e){
+                    Thread.currentThread().interrupt();
+                }
+                if(myClosed || Thread.currentThread().isInterrupted()){
+                    result.myComplete = false;
+                    break;
+                }
+            }
+            int errorBit = myRegion.scrubBlock(block, codeBlock);
+            if(errorBit >= 0){
+                result.myCorrected++;
+            }else if(errorBit == -2){
+                if(numUncorrectable == uncorrectable.length){
+                    uncorrectable = Arrays.copyOf(uncorrectable, 2 * numUncorrectable);
+                }
+                uncorrectable[numUncorrectable++] = block;
+            }
+            result.myScanned++;
+        }
+        result.myUncorrectable = Arrays.copyOf(uncorrectable, numUncorrectable);
+        CoderMetrics.recordErrors(result.myCorrected, numUncorrectable);
+        return result;
+    }
+
+    private void awaitResumed() throws InterruptedException {
+        if(!myPaused){
+            return;
+        }
+        synchronized(myPauseLock){
+            while(myPaused && !myClosed){
+                myPauseLock.wait();
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name){
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static class ChunkResult {
+        long myScanned;
+        long myCorrected;
+        int[] myUncorrectable;
+        boolean myComplete = true;
+    }
+}
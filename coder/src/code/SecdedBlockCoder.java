@@ -0,0 +1,712 @@
+package code;
+
+import exception.DoubleBitErrorException;
+import exception.InvalidInputFormatException;
+import exception.SingleBitErrorException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-block SECDED (single error correction, double error detection) coder.
+ * A payload is split into blocks of getDataBits() bits and every block is encoded as an independent
+ * extended Hamming word with the same layout as HammingCoder: overall parity bit at index 0 and
+ * index-based parity bits at powers of two. The last block is padded with 0 bits.
+ * Each block can correct one corrupted bit and detect two, independently of the other blocks.
+ * Parities are computed by one of two interchangeable engines producing identical results, see Engine.
+ * Instances are immutable and may be shared between threads.
+ */
+public class SecdedBlockCoder {
+
+    /**
+     * Way of computing the parity bits and syndromes of blocks.
+     */
+    public enum Engine {
+        // applies parity masks with the ParityKernel, vectorized when the Vector API is available
+        MASK,
+        // XORs per-byte lookup tables of syndrome contributions, one lookup per byte as in CRC slicing-by-N;
+        // a portable alternative when the Vector API is not available, for blocks whose tables fit MAX_TABLE_BYTES
+        TABLE
+    }
+
+    // system property selecting the Engine of the coders shared by forDataBits, "mask" by default
+    static final String ENGINE_PROPERTY = "code.blockEngine";
+
+    // (72,64) code as used by ECC DRAM
+    public static final int DATA_BITS_64 = 64;
+    // (137,128) code
+    public static final int DATA_BITS_128 = 128;
+
+    // blocks whose parities are computed in one ParityKernel call by the byte-oriented methods
+    static final int BATCH_BLOCKS = 256;
+    // largest lookup tables of the TABLE engine; larger blocks use MASK, whose tables would not stay in cache
+    static final int MAX_TABLE_BYTES = 1 << 20;
+
+    private static final ConcurrentMap<Integer, SecdedBlockCoder> CODERS = new ConcurrentHashMap<>();
+    private static final Engine DEFAULT_ENGINE =
+            System.getProperty(ENGINE_PROPERTY, "").equalsIgnoreCase("table") ? Engine.TABLE : Engine.MASK;
+
+    private final Engine myEngine;
+    private final int myDataBits;
+    private final int myCodeBits;
+    private final int myNumParityBits;
+    // code positions covered by the parity bit at index 2^j, packed per 64-bit word of a block
+    private final long[][] myParityMasks;
+    // myParityMasks followed by a mask of all code positions, yielding syndrome and overall parity at once
+    private final long[][] myCheckMasks;
+    // contiguous runs of data bits between two parity bits, as code position and length
+    private final int[] myRunStarts;
+    private final int[] myRunLengths;
+    // TABLE engine only: checkBits contribution of code byte p holding value v at index p * 256 + v
+    private final long[] myCodeTable;
+    // TABLE engine only, for byte-aligned blocks: same for payload byte p, with all parity bits at 0
+    private final long[] myDataTable;
+
+    /**
+     * @param dataBits number of payload bits per block, e.g. DATA_BITS_64 for a (72,64) code
+     */
+    public SecdedBlockCoder(int dataBits){
+        this(dataBits, Engine.MASK);
+    }
+
+    /**
+     * @param dataBits number of payload bits per block, e.g. DATA_BITS_64 for a (72,64) code
+     * @param engine way of computing parities; TABLE falls back to MASK if its tables would exceed MAX_TABLE_BYTES
+     */
+    public SecdedBlockCoder(int dataBits, Engine engine){
+        if(dataBits < 1){
+            throw new IllegalArgumentException("Block must hold at least one data bit: " + dataBits);
+        }
+        myDataBits = dataBits;
+        int numPBits = 0;
+        while((1 << numPBits) < dataBits+numPBits+1){
+            numPBits++;
+        }
+        myNumParityBits = numPBits;
+        myCodeBits = dataBits + numPBits + 1;
+
+        myParityMasks = new long[numPBits][BitArrays.numWords(myCodeBits)];
+        for(int index = 1; index<myCodeBits; index++){
+            for(int j = 0; j<numPBits; j++){
+                if((index & (1 << j)) != 0){
+                    myParityMasks[j][index >>> 6] |= 1L << index;
+                }
+            }
+        }
+
+        myCheckMasks = Arrays.copyOf(myParityMasks, numPBits+1);
+        myCheckMasks[numPBits] = new long[BitArrays.numWords(myCodeBits)];
+        for(int index = 0; index<myCodeBits; index++){
+            myCheckMasks[numPBits][index >>> 6] |= 1L << index;
+        }
+
+        int[] runStarts = new int[numPBits];
+        int[] runLengths = new int[numPBits];
+        int numRuns = 0;
+        for(int j = 2; j<=numPBits; j++){
+            int start = (1 << (j-1)) + 1;
+            int end = Math.min(1 << j, myCodeBits);
+            if(start < end){
+                runStarts[numRuns] = start;
+                runLengths[numRuns] = end - start;
+                numRuns++;
+            }
+        }
+        myRunStarts = Arrays.copyOf(runStarts, numRuns);
+        myRunLengths = Arrays.copyOf(runLengths, numRuns);
+
+        long tableBytes = (long) (getCodeBytes() + (dataBits % 8 == 0 ? dataBits / 8 : 0)) * 256 * Long.BYTES;
+        myEngine = engine == Engine.TABLE && tableBytes <= MAX_TABLE_BYTES ? Engine.TABLE : Engine.MASK;
+        if(myEngine == Engine.TABLE){
+            long[] positionChecks = new long[getCodeBytes() * 8];
+            for(int index = 0; index<myCodeBits; index++){
+                // every position counts in the overall parity, and in the parity bits of its index bits
+                positionChecks[index] = index | 1L << numPBits;
+            }
+            myCodeTable = byteTable(positionChecks);
+            if(dataBits % 8 == 0){
+                long[] dataChecks = new long[dataBits];
+                int dataIndex = 0;
+                for(int run = 0; run<myRunStarts.length; run++){
+                    for(int i = 0; i<myRunLengths[run]; i++){
+                        dataChecks[dataIndex++] = positionChecks[myRunStarts[run] + i];
+                    }
+                }
+                myDataTable = byteTable(dataChecks);
+            }else{
+                myDataTable = null;
+            }
+        }else{
+            myCodeTable = null;
+            myDataTable = null;
+        }
+    }
+
+    /**
+     * @param bitChecks checkBits contribution of each bit, a multiple of 8 of them
+     * @return checkBits contribution of each value of each byte, value v of byte p at index p * 256 + v
+     */
+    private static long[] byteTable(long[] bitChecks){
+        long[] table = new long[bitChecks.length / 8 * 256];
+        for(int p = 0; p<bitChecks.length / 8; p++){
+            for(int v = 1; v<256; v++){
+                table[p*256 + v] = table[p*256 + (v & (v-1))] ^ bitChecks[p*8 + Integer.numberOfTrailingZeros(v)];
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @param dataBits number of payload bits per block
+     * @return a shared coder for that block size, built on first use with the engine selected by
+     *          the system property code.blockEngine ("mask" or "table")
+     */
+    public static SecdedBlockCoder forDataBits(int dataBits){
+        return CODERS.computeIfAbsent(dataBits, bits -> new SecdedBlockCoder(bits, DEFAULT_ENGINE));
+    }
+
+    /**
+     * @return the engine in use, MASK if TABLE was requested for blocks too large for it
+     */
+    public Engine getEngine(){
+        return myEngine;
+    }
+
+    public int getDataBits(){
+        return myDataBits;
+    }
+
+    public int getCodeBits(){
+        return myCodeBits;
+    }
+
+    /**
+     * @return number of payload bytes per block for the byte-oriented methods
+     * @throws UnsupportedOperationException if a block does not hold a whole number of data bytes
+     */
+    public int getDataBytes(){
+        if(myDataBits % 8 != 0){
+            throw new UnsupportedOperationException("Block of " + myDataBits + " data bits is not byte-aligned");
+        }
+        return myDataBits / 8;
+    }
+
+    /**
+     * @return number of bytes an encoded block occupies in the byte-oriented methods; unused high bits of the last byte are 0
+     */
+    public int getCodeBytes(){
+        return (myCodeBits + 7) / 8;
+    }
+
+    /**
+     * @param dataLength number of payload bits
+     * @return number of blocks needed to hold the payload
+     */
+    public int numBlocks(int dataLength){
+        return (dataLength + myDataBits - 1) / myDataBits;
+    }
+
+    /**
+     * @param dataLength number of payload bits
+     * @return number of bits in the encoded payload
+     */
+    public int encodedLength(int dataLength){
+        return numBlocks(dataLength) * myCodeBits;
+    }
+
+    /**
+     * Applies block-wise SECDED coding to a bit sequence in binary form
+     * @param data String containing the input bit sequence to encode
+     * @return String containing the concatenated encoded blocks
+     * @throws InvalidInputFormatException if the input String contains characters other than 0 or 1
+     */
+    public String encode(String data) throws InvalidInputFormatException {
+        return encode(new BinaryCode(data)).toString();
+    }
+
+    /**
+     * Recovers the original data from block-wise encoded bits, correcting one corrupted bit per block
+     * @param code String containing the concatenated encoded blocks
+     * @param dataLength number of payload bits that were encoded, used to trim the padding of the last block
+     * @return String containing the decoded bit sequence
+     * @throws InvalidInputFormatException if the input String contains characters other than 0 or 1,
+     *          or its length is not a whole number of blocks
+     * @throws DoubleBitErrorException if a block holds an uncorrectable corruption
+     */
+    public String decode(String code, int dataLength) throws InvalidInputFormatException, DoubleBitErrorException {
+        return decode(new BinaryCode(code), dataLength).toString();
+    }
+
+    /**
+     * @param data payload to encode
+     * @return the concatenated encoded blocks
+     */
+    public BinaryCode encode(BinaryCode data){
+        int dataLength = data.length();
+        int numBlocks = numBlocks(dataLength);
+        BinaryCode encoded = new BinaryCode(numBlocks * myCodeBits);
+        long[] dataBlock = new long[BitArrays.numWords(myDataBits)];
+        long[] codeBlock = new long[BitArrays.numWords(myCodeBits)];
+        for(int block = 0; block<numBlocks; block++){
+            int offset = block * myDataBits;
+            Arrays.fill(dataBlock, 0L);
+            BitArrays.copy(data.words(), offset, dataBlock, 0, Math.min(myDataBits, dataLength - offset));
+            encodeBlock(dataBlock, codeBlock);
+            BitArrays.copy(codeBlock, 0, encoded.words(), block * myCodeBits, myCodeBits);
+        }
+        return encoded;
+    }
+
+    /**
+     * Decodes the concatenated blocks, correcting one corrupted bit per block. The input is left unchanged.
+     * @param code concatenated encoded blocks
+     * @param dataLength number of payload bits that were encoded
+     * @return the decoded payload
+     * @throws InvalidInputFormatException if code is not a whole number of blocks
+     * @throws DoubleBitErrorException if a block holds an uncorrectable corruption, whose index it gives
+     */
+    public BinaryCode decode(BinaryCode code, int dataLength) throws InvalidInputFormatException, DoubleBitErrorException {
+        int numBlocks = checkBlocks(code);
+        if(dataLength < 0 || dataLength > numBlocks * myDataBits){
+            throw new IllegalArgumentException("Data length " + dataLength + " does not fit in " + numBlocks + " blocks");
+        }
+        BinaryCode decoded = new BinaryCode(dataLength);
+        long[] dataBlock = new long[BitArrays.numWords(myDataBits)];
+        long[] codeBlock = new long[BitArrays.numWords(myCodeBits)];
+        for(int block = 0; block<numBlocks; block++){
+            BitArrays.copy(code.words(), block * myCodeBits, codeBlock, 0, myCodeBits);
+            int errorBit = locateError(codeBlock);
+            if(errorBit == -2){
+                throw new DoubleBitErrorException(block);
+            }else if(errorBit >= 0){
+                BitArrays.flipBit(codeBlock, errorBit);
+            }
+            extractBlock(codeBlock, dataBlock);
+            int offset = block * myDataBits;
+            BitArrays.copy(dataBlock, 0, decoded.words(), offset, Math.min(myDataBits, dataLength - offset));
+        }
+        return decoded;
+    }
+
+    /**
+     * Validate a single block against single- or double-bit corruption.
+     * @param code concatenated encoded blocks
+     * @param block index of the block to validate
+     * @throws SingleBitErrorException if a single-bit corruption is detected.
+     *          Set SingleBitErrorException.errorBitIndex as the index of corrupted bit within code.
+     * @throws DoubleBitErrorException if a double-bit corruption is detected.
+     */
+    public void validateBlock(BinaryCode code, int block) throws SingleBitErrorException, DoubleBitErrorException {
+        ValidationResult result = validateBlock(code, block, new ValidationResult());
+        if(result.getStatus() == ValidationResult.Status.SINGLE_BIT_ERROR){
+            throw new SingleBitErrorException(result.getErrorBitIndex());
+        }else if(result.getStatus() == ValidationResult.Status.DOUBLE_BIT_ERROR){
+            throw new DoubleBitErrorException(block);
+        }
+    }
+
+    /**
+     * Validate a single block against single- or double-bit corruption without throwing on corruption.
+     * @param code concatenated encoded blocks
+     * @param block index of the block to validate
+     * @param result receives the outcome, with the error bit index relative to the start of code; may be reused
+     * @return result
+     */
+    public ValidationResult validateBlock(BinaryCode code, int block, ValidationResult result){
+        Objects.checkIndex(block, code.length() / myCodeBits);
+        long[] codeBlock = new long[BitArrays.numWords(myCodeBits)];
+        BitArrays.copy(code.words(), block * myCodeBits, codeBlock, 0, myCodeBits);
+        int errorBit = locateError(codeBlock);
+        if(errorBit == -2){
+            result.set(ValidationResult.Status.DOUBLE_BIT_ERROR, -1);
+        }else if(errorBit >= 0){
+            result.set(ValidationResult.Status.SINGLE_BIT_ERROR, block * myCodeBits + errorBit);
+        }else{
+            result.set(ValidationResult.Status.VALID, -1);
+        }
+        return result;
+    }
+
+    /**
+     * Repairs single-bit corruptions in place, one per block. Blocks with an uncorrectable corruption are left as-is.
+     * @param code concatenated encoded blocks
+     * @return number of corrected blocks
+     * @throws InvalidInputFormatException if code is not a whole number of blocks
+     * @throws DoubleBitErrorException if at least one block holds an uncorrectable corruption, giving the index
+     *          of the first one; all correctable blocks have been repaired when it is thrown
+     */
+    public int correct(BinaryCode code) throws InvalidInputFormatException, DoubleBitErrorException {
+        int numBlocks = checkBlocks(code);
+        long[] codeBlock = new long[BitArrays.numWords(myCodeBits)];
+        int corrected = 0;
+        int firstUncorrectable = -1;
+        for(int block = 0; block<numBlocks; block++){
+            BitArrays.copy(code.words(), block * myCodeBits, codeBlock, 0, myCodeBits);
+            int errorBit = locateError(codeBlock);
+            if(errorBit == -2){
+                if(firstUncorrectable < 0){
+                    firstUncorrectable = block;
+                }
+            }else if(errorBit >= 0){
+                code.flipBit(block * myCodeBits + errorBit);
+                corrected++;
+            }
+        }
+        if(firstUncorrectable >= 0){
+            throw new DoubleBitErrorException(firstUncorrectable);
+        }
+        return corrected;
+    }
+
+    /**
+     * Changes one payload bit of the concatenated blocks in place, without re-encoding: only the bit itself, the
+     * parity bits of its block covering it and the overall parity bit of its block are touched, in O(log n).
+     * A corruption already present in code is kept and is still detected the same way.
+     * @param code concatenated encoded blocks
+     * @param dataIndex index of the payload bit, as in the decoded payload
+     * @param value new value of the payload bit
+     * @throws InvalidInputFormatException if code is not a whole number of blocks
+     */
+    public void update(BinaryCode code, int dataIndex, boolean value) throws InvalidInputFormatException {
+        update(code, new int[]{dataIndex}, new boolean[]{value});
+    }
+
+    /**
+     * Same as update(BinaryCode, int, boolean) for several payload bits, in O(changed bits x log n).
+     * Bits are updated in order, so the last value given for an index wins.
+     * @param dataIndices indices of the payload bits; all are checked before code is changed
+     * @param values new values, values[i] going to dataIndices[i]
+     * @throws InvalidInputFormatException if code is not a whole number of blocks
+     */
+    public void update(BinaryCode code, int[] dataIndices, boolean[] values) throws InvalidInputFormatException {
+        if(dataIndices.length != values.length){
+            throw new IllegalArgumentException(dataIndices.length + " indices for " + values.length + " values");
+        }
+        int numBlocks = checkBlocks(code);
+        for(int dataIndex : dataIndices){
+            Objects.checkIndex(dataIndex, numBlocks * myDataBits);
+        }
+        for(int i = 0; i<dataIndices.length; i++){
+            int block = dataIndices[i] / myDataBits;
+            // blocks share the bit layout of HammingCoder words
+            HammingCoder.updateBit(code.words(), block * myCodeBits,
+                    HammingCoder.codePosition(dataIndices[i] % myDataBits), values[i]);
+        }
+    }
+
+    /**
+     * Encodes as many whole blocks as fit from the remaining bytes of data into the remaining bytes of code.
+     * Both positions are advanced past the processed blocks; data bits are taken least significant bit first.
+     * @param data payload bytes, getDataBytes() per block
+     * @param code receives getCodeBytes() per block
+     * @return number of encoded blocks
+     */
+    public int encodeBlocks(ByteBuffer data, ByteBuffer code){
+        int dataBytes = getDataBytes();
+        int codeBytes = getCodeBytes();
+        int numBlocks = Math.min(data.remaining() / dataBytes, code.remaining() / codeBytes);
+        long start = CoderMetrics.start();
+        long[] dataBlock = new long[BitArrays.numWords(myDataBits)];
+        long[] codeBlock = new long[BitArrays.numWords(myCodeBits)];
+        long[] planes = newPlanes(codeBlock);
+        long[] checks = new long[BATCH_BLOCKS];
+        int dataIndex = data.position();
+        int codeIndex = code.position();
+        for(int first = 0; first<numBlocks; first += BATCH_BLOCKS){
+            int count = Math.min(BATCH_BLOCKS, numBlocks - first);
+            for(int i = 0; i<count; i++){
+                BitArrays.readBytes(data, dataIndex + i * dataBytes, dataBlock, dataBytes);
+                scatterBlock(dataBlock, codeBlock);
+                if(myEngine == Engine.TABLE){
+                    setParityBits(codeBlock, lookupChecks(myDataTable, data, dataIndex + i * dataBytes, dataBytes));
+                    BitArrays.writeBytes(codeBlock, code, codeIndex + i * codeBytes, codeBytes);
+                }else{
+                    storePlanes(codeBlock, planes, i);
+                }
+            }
+            if(myEngine == Engine.MASK){
+                ParityKernels.get().maskParities(planes, BATCH_BLOCKS, count, myCheckMasks, checks);
+                for(int i = 0; i<count; i++){
+                    loadPlanes(planes, i, codeBlock);
+                    setParityBits(codeBlock, checks[i]);
+                    BitArrays.writeBytes(codeBlock, code, codeIndex + i * codeBytes, codeBytes);
+                }
+            }
+            dataIndex += count * dataBytes;
+            codeIndex += count * codeBytes;
+        }
+        data.position(dataIndex);
+        code.position(codeIndex);
+        CoderMetrics.record(CoderMetrics.Operation.ENCODE, start, numBlocks, (long) numBlocks * myDataBits);
+        return numBlocks;
+    }
+
+    /**
+     * Decodes as many whole blocks as fit from the remaining bytes of code into the remaining bytes of data,
+     * correcting one corrupted bit per block. The code bytes are left unchanged.
+     * Both positions are advanced past the processed blocks.
+     * @param code encoded bytes, getCodeBytes() per block
+     * @param data receives getDataBytes() per block
+     * @return number of corrected blocks
+     * @throws DoubleBitErrorException if a block holds an uncorrectable corruption, giving its index counted from
+     *          the initial position of code; both positions are then left at the start of that block
+     */
+    public int decodeBlocks(ByteBuffer code, ByteBuffer data) throws DoubleBitErrorException {
+        int dataBytes = getDataBytes();
+        int codeBytes = getCodeBytes();
+        int numBlocks = Math.min(data.remaining() / dataBytes, code.remaining() / codeBytes);
+        long[] dataBlock = new long[BitArrays.numWords(myDataBits)];
+        long[] codeBlock = new long[BitArrays.numWords(myCodeBits)];
+        long[] planes = newPlanes(codeBlock);
+        long[] checks = new long[BATCH_BLOCKS];
+        long start = CoderMetrics.start();
+        int corrected = 0;
+        for(int first = 0; first<numBlocks; first += BATCH_BLOCKS){
+            int count = Math.min(BATCH_BLOCKS, numBlocks - first);
+            checkBatch(code, code.position(), count, codeBlock, planes, checks);
+            for(int i = 0; i<count; i++){
+                if(myEngine == Engine.TABLE){
+                    readCodeBlock(code, code.position(), codeBlock);
+                }else{
+                    loadPlanes(planes, i, codeBlock);
+                }
+                int errorBit = locateError(checks[i]);
+                if(errorBit == -2){
+                    CoderMetrics.record(CoderMetrics.Operation.DECODE, start, first + i, (long) (first + i) * myDataBits);
+                    CoderMetrics.recordErrors(corrected, 1);
+                    throw new DoubleBitErrorException(first + i);
+                }else if(errorBit >= 0){
+                    BitArrays.flipBit(codeBlock, errorBit);
+                    corrected++;
+                }
+                extractBlock(codeBlock, dataBlock);
+                BitArrays.writeBytes(dataBlock, data, data.position(), dataBytes);
+                code.position(code.position() + codeBytes);
+                data.position(data.position() + dataBytes);
+            }
+        }
+        CoderMetrics.record(CoderMetrics.Operation.DECODE, start, numBlocks, (long) numBlocks * myDataBits);
+        CoderMetrics.recordErrors(corrected, 0);
+        return corrected;
+    }
+
+    /**
+     * Repairs single-bit corruptions in place in all whole blocks remaining in code, one per block.
+     * Blocks with an uncorrectable corruption are left as-is. The position is advanced past the processed blocks.
+     * @param code encoded bytes, getCodeBytes() per block
+     * @return number of corrected blocks
+     * @throws DoubleBitErrorException if at least one block holds an uncorrectable corruption, giving the index
+     *          of the first one; all correctable blocks have been repaired when it is thrown
+     */
+    public int correctBlocks(ByteBuffer code) throws DoubleBitErrorException {
+        AtomicLong firstUncorrectable = new AtomicLong(Long.MAX_VALUE);
+        int corrected = correctBlocks(code, 0, firstUncorrectable);
+        if(firstUncorrectable.get() != Long.MAX_VALUE){
+            throw new DoubleBitErrorException(firstUncorrectable.get());
+        }
+        return corrected;
+    }
+
+    /**
+     * Same as correctBlocks(ByteBuffer), but records uncorrectable blocks instead of throwing.
+     * @param firstBlock index given to the first remaining block of code
+     * @param firstUncorrectable lowered to the index of the first uncorrectable block, if any
+     * @return number of corrected blocks
+     */
+    int correctBlocks(ByteBuffer code, long firstBlock, AtomicLong firstUncorrectable){
+        int codeBytes = getCodeBytes();
+        int numBlocks = code.remaining() / codeBytes;
+        long[] codeBlock = new long[BitArrays.numWords(myCodeBits)];
+        long[] planes = newPlanes(codeBlock);
+        long[] checks = new long[BATCH_BLOCKS];
+        int codeIndex = code.position();
+        long start = CoderMetrics.start();
+        int corrected = 0;
+        int uncorrectableBlocks = 0;
+        for(int first = 0; first<numBlocks; first += BATCH_BLOCKS){
+            int count = Math.min(BATCH_BLOCKS, numBlocks - first);
+            checkBatch(code, codeIndex, count, codeBlock, planes, checks);
+            for(int i = 0; i<count; i++){
+                int errorBit = locateError(checks[i]);
+                if(errorBit == -2){
+                    if(uncorrectableBlocks == 0){
+                        firstUncorrectable.accumulateAndGet(firstBlock + first + i, Math::min);
+                    }
+                    uncorrectableBlocks++;
+                }else if(errorBit >= 0){
+                    int byteIndex = codeIndex + (errorBit >>> 3);
+                    code.put(byteIndex, (byte) (code.get(byteIndex) ^ (1 << (errorBit & 7))));
+                    corrected++;
+                }
+                codeIndex += codeBytes;
+            }
+        }
+        code.position(codeIndex);
+        CoderMetrics.record(CoderMetrics.Operation.CORRECT, start, numBlocks, (long) numBlocks * myDataBits);
+        CoderMetrics.recordErrors(corrected, uncorrectableBlocks);
+        return corrected;
+    }
+
+    /**
+     * Computes the syndromes and overall parities of count consecutive encoded blocks starting at the absolute
+     * index of code. The MASK engine also loads the blocks into planes; the TABLE engine reads the bytes directly.
+     */
+    private void checkBatch(ByteBuffer code, int index, int count, long[] codeBlock, long[] planes, long[] checks){
+        if(myEngine == Engine.TABLE){
+            for(int i = 0; i<count; i++){
+                checks[i] = lookupChecks(myCodeTable, code, index + i * getCodeBytes(), getCodeBytes());
+            }
+            return;
+        }
+        for(int i = 0; i<count; i++){
+            readCodeBlock(code, index + i * getCodeBytes(), codeBlock);
+            storePlanes(codeBlock, planes, i);
+        }
+        ParityKernels.get().maskParities(planes, BATCH_BLOCKS, count, myCheckMasks, checks);
+    }
+
+    /**
+     * @return planes for a batch of blocks, or null with the TABLE engine which does not use them
+     */
+    private long[] newPlanes(long[] codeBlock){
+        return myEngine == Engine.MASK ? new long[codeBlock.length * BATCH_BLOCKS] : null;
+    }
+
+    /**
+     * XORs the table entries of numBytes bytes of buffer starting at its absolute index.
+     */
+    private static long lookupChecks(long[] table, ByteBuffer buffer, int index, int numBytes){
+        long checks = 0L;
+        for(int p = 0; p<numBytes; p++){
+            checks ^= table[p*256 + (buffer.get(index + p) & 0xFF)];
+        }
+        return checks;
+    }
+
+    private void storePlanes(long[] codeBlock, long[] planes, int block){
+        for(int w = 0; w<codeBlock.length; w++){
+            planes[w * BATCH_BLOCKS + block] = codeBlock[w];
+        }
+    }
+
+    private void loadPlanes(long[] planes, int block, long[] codeBlock){
+        for(int w = 0; w<codeBlock.length; w++){
+            codeBlock[w] = planes[w * BATCH_BLOCKS + block];
+        }
+    }
+
+    /**
+     * Loads one encoded block from its byte representation, ignoring the unused high bits of the last byte.
+     */
+    private void readCodeBlock(ByteBuffer code, int index, long[] codeBlock){
+        BitArrays.readBytes(code, index, codeBlock, getCodeBytes());
+        BitArrays.clearFrom(codeBlock, myCodeBits);
+    }
+
+    /**
+     * Encodes one block.
+     * @param data block payload, getDataBits() bits packed into words
+     * @param code receives the getCodeBits() encoded bits
+     */
+    void encodeBlock(long[] data, long[] code){
+        scatterBlock(data, code);
+        setParityBits(code, checkBits(code));
+    }
+
+    /**
+     * Places the payload of one block at its data positions, leaving all parity bits at 0.
+     */
+    private void scatterBlock(long[] data, long[] code){
+        Arrays.fill(code, 0L);
+        int dataIndex = 0;
+        for(int run = 0; run<myRunStarts.length; run++){
+            BitArrays.copy(data, dataIndex, code, myRunStarts[run], myRunLengths[run]);
+            dataIndex += myRunLengths[run];
+        }
+    }
+
+    /**
+     * Completes a scattered block.
+     * @param checks checkBits of the block with all parity bits still at 0
+     */
+    private void setParityBits(long[] code, long checks){
+        // with all parity bits at 0, the syndrome is exactly the parity bit pattern to store
+        int syndrome = (int) checks & ((1 << myNumParityBits) - 1);
+        for(int j = 0; j<myNumParityBits; j++){
+            if((syndrome & (1 << j)) != 0){
+                code[(1 << j) >>> 6] |= 1L << (1 << j);
+            }
+        }
+        if((((checks >>> myNumParityBits) ^ Integer.bitCount(syndrome)) & 1) != 0){
+            code[0] |= 1L;
+        }
+    }
+
+    /**
+     * Extracts the payload of one block, without any correction.
+     */
+    void extractBlock(long[] code, long[] data){
+        Arrays.fill(data, 0L);
+        int dataIndex = 0;
+        for(int run = 0; run<myRunStarts.length; run++){
+            BitArrays.copy(code, myRunStarts[run], data, dataIndex, myRunLengths[run]);
+            dataIndex += myRunLengths[run];
+        }
+    }
+
+    /**
+     * @param code one encoded block
+     * @return bit index of the detected single error within the block.
+     *      Return -1 if no error detected.
+     *      Return -2 if an uncorrectable error is detected.
+     */
+    int locateError(long[] code){
+        return locateError(checkBits(code));
+    }
+
+    /**
+     * @param checks checkBits of one encoded block
+     * @return same as locateError(long[])
+     */
+    private int locateError(long checks){
+        int syndrome = (int) checks & ((1 << myNumParityBits) - 1);
+        boolean overallParity = ((checks >>> myNumParityBits) & 1) != 0;
+        if(!overallParity){
+            return syndrome == 0 ? -1 : -2;
+        }
+        return syndrome < myCodeBits ? syndrome : -2;
+    }
+
+    /**
+     * @return the syndrome of one block in the low bits, one per parity bit, followed by its overall parity
+     */
+    private long checkBits(long[] code){
+        long checks = 0L;
+        if(myEngine == Engine.TABLE){
+            for(int p = 0; p<getCodeBytes(); p++){
+                checks ^= myCodeTable[p*256 + (int) ((code[p >>> 3] >>> (p << 3)) & 0xFF)];
+            }
+            return checks;
+        }
+        for(int j = 0; j<myCheckMasks.length; j++){
+            long[] mask = myCheckMasks[j];
+            int count = 0;
+            for(int w = 0; w<code.length; w++){
+                count += Long.bitCount(code[w] & mask[w]);
+            }
+            checks |= (long) (count & 1) << j;
+        }
+        return checks;
+    }
+
+    private int checkBlocks(BinaryCode code) throws InvalidInputFormatException {
+        if(code.length() % myCodeBits != 0){
+            throw new InvalidInputFormatException();
+        }
+        return code.length() / myCodeBits;
+    }
+}
@@ -0,0 +1,163 @@
+package code;
+
+import exception.DoubleBitErrorException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Streaming decoder: reads blocks written by SecdedEncoder from the wrapped channel, corrects one
+ * corrupted bit per block and yields the original bytes, using buffers of a fixed number of blocks.
+ * The last two blocks read are held back until the end of the input is known, since the final block
+ * is the trailer telling how many bytes of the last data block are payload.
+ * An uncorrectable block is reported as an IOException caused by a DoubleBitErrorException.
+ */
+public class SecdedDecoder implements ReadableByteChannel {
+
+    private final SecdedBlockCoder myCoder;
+    private final ReadableByteChannel myIn;
+    private final ByteBuffer myCodeBuffer;
+    private final ByteBuffer myDataBuffer;
+    private final ByteBuffer myTrailerBuffer;
+    private long myBlocksRead;
+    private long myCorrectedBlocks;
+    private boolean myEndOfInput;
+    private boolean myFinished;
+    private boolean myOpen;
+
+    public SecdedDecoder(SecdedBlockCoder coder, ReadableByteChannel in){
+        this(coder, in, SecdedEncoder.DEFAULT_CHUNK_BLOCKS);
+    }
+
+    public SecdedDecoder(SecdedBlockCoder coder, InputStream in){
+        this(coder, Channels.newChannel(in), SecdedEncoder.DEFAULT_CHUNK_BLOCKS);
+    }
+
+    /**
+     * @param coder block coder; must use a whole number of data bytes per block
+     * @param in blocking channel supplying the encoded blocks
+     * @param chunkBlocks number of blocks read from in at a time; at least 3
+     */
+    public SecdedDecoder(SecdedBlockCoder coder, ReadableByteChannel in, int chunkBlocks){
+        if(chunkBlocks < 3){
+            throw new IllegalArgumentException("Chunk must hold at least three blocks: " + chunkBlocks);
+        }
+        myCoder = coder;
+        myIn = in;
+        myCodeBuffer = ByteBuffer.allocate(coder.getCodeBytes() * chunkBlocks);
+        myDataBuffer = ByteBuffer.allocate(coder.getDataBytes() * chunkBlocks);
+        myDataBuffer.flip();
+        myTrailerBuffer = ByteBuffer.allocate(coder.getDataBytes());
+        myOpen = true;
+    }
+
+    /**
+     * @return an InputStream view of this decoder; closing it closes the decoder
+     */
+    public InputStream asInputStream(){
+        return Channels.newInputStream(this);
+    }
+
+    /**
+     * @return number of blocks in which a single-bit corruption has been corrected so far
+     */
+    public long getCorrectedBlocks(){
+        return myCorrectedBlocks;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if(!myOpen){
+            throw new ClosedChannelException();
+        }
+        while(!myDataBuffer.hasRemaining()){
+            if(myFinished){
+                return -1;
+            }
+            decodeNextChunk();
+        }
+        int count = Math.min(dst.remaining(), myDataBuffer.remaining());
+        int limit = myDataBuffer.limit();
+        myDataBuffer.limit(myDataBuffer.position() + count);
+        dst.put(myDataBuffer);
+        myDataBuffer.limit(limit);
+        return count;
+    }
+
+    @Override
+    public boolean isOpen(){
+        return myOpen;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(myOpen){
+            myOpen = false;
+            myIn.close();
+        }
+    }
+
+    /**
+     * Fills the code buffer and decodes all blocks known not to be the last data block or the trailer.
+     */
+    private void decodeNextChunk() throws IOException {
+        while(!myEndOfInput && myCodeBuffer.hasRemaining()){
+            if(myIn.read(myCodeBuffer) < 0){
+                myEndOfInput = true;
+            }
+        }
+        myCodeBuffer.flip();
+        int codeBytes = myCoder.getCodeBytes();
+        int dataBytes = myCoder.getDataBytes();
+        int numBlocks = myCodeBuffer.remaining() / codeBytes;
+        int numDataBlocks;
+        if(myEndOfInput){
+            if(myCodeBuffer.remaining() % codeBytes != 0 || numBlocks == 0){
+                throw new IOException("Truncated encoded stream after " + myBlocksRead + " blocks");
+            }
+            numDataBlocks = numBlocks - 1;
+        }else{
+            numDataBlocks = numBlocks - 2;
+        }
+
+        myDataBuffer.clear();
+        int limit = myCodeBuffer.limit();
+        myCodeBuffer.limit(myCodeBuffer.position() + numDataBlocks * codeBytes);
+        decode(myCodeBuffer, myDataBuffer);
+        myCodeBuffer.limit(limit);
+
+        if(myEndOfInput){
+            myTrailerBuffer.clear();
+            decode(myCodeBuffer, myTrailerBuffer);
+            int lastBlockBytes = 0;
+            for(int i = 0; i<Math.min(4, dataBytes); i++){
+                lastBlockBytes |= (myTrailerBuffer.get(i) & 0xFF) << (i << 3);
+            }
+            boolean hasData = myBlocksRead > 1;
+            if(hasData ? lastBlockBytes < 1 || lastBlockBytes > dataBytes : lastBlockBytes != 0){
+                throw new IOException("Invalid trailer block: " + lastBlockBytes + " bytes in last block");
+            }
+            if(hasData){
+                myDataBuffer.position(myDataBuffer.position() - (dataBytes - lastBlockBytes));
+            }
+            myFinished = true;
+        }
+        myCodeBuffer.compact();
+        myDataBuffer.flip();
+    }
+
+    private void decode(ByteBuffer code, ByteBuffer data) throws IOException {
+        int start = code.position();
+        try {
+            myCorrectedBlocks += myCoder.decodeBlocks(code, data);
+        }catch (DoubleBitErrorException e){
+            long block = myBlocksRead + (code.position() - start) / myCoder.getCodeBytes();
+            throw new IOException("Uncorrectable corruption in block " + block, e);
+        }
+        myBlocksRead += (code.position() - start) / myCoder.getCodeBytes();
+    }
+}
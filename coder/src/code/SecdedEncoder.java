@@ -0,0 +1,127 @@
+package code;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Streaming encoder: bytes written to it are encoded block by block with a SecdedBlockCoder
+ * and passed on to the wrapped channel, using buffers of a fixed number of blocks.
+ * Closing the encoder pads and encodes the last partial block and appends a trailer block holding
+ * the number of payload bytes in the last data block, so that SecdedDecoder can restore the exact length.
+ */
+public class SecdedEncoder implements WritableByteChannel {
+
+    // number of blocks buffered before they are encoded and written out
+    static final int DEFAULT_CHUNK_BLOCKS = 1024;
+
+    private final SecdedBlockCoder myCoder;
+    private final WritableByteChannel myOut;
+    private final ByteBuffer myDataBuffer;
+    private final ByteBuffer myCodeBuffer;
+    private long myBlocksWritten;
+    private boolean myOpen;
+
+    public SecdedEncoder(SecdedBlockCoder coder, WritableByteChannel out){
+        this(coder, out, DEFAULT_CHUNK_BLOCKS);
+    }
+
+    public SecdedEncoder(SecdedBlockCoder coder, OutputStream out){
+        this(coder, Channels.newChannel(out), DEFAULT_CHUNK_BLOCKS);
+    }
+
+    /**
+     * @param coder block coder; must use a whole number of data bytes per block
+     * @param out channel receiving the encoded blocks
+     * @param chunkBlocks number of blocks buffered between two writes to out
+     */
+    public SecdedEncoder(SecdedBlockCoder coder, WritableByteChannel out, int chunkBlocks){
+        if(chunkBlocks < 1){
+            throw new IllegalArgumentException("Chunk must hold at least one block: " + chunkBlocks);
+        }
+        myCoder = coder;
+        myOut = out;
+        myDataBuffer = ByteBuffer.allocate(coder.getDataBytes() * chunkBlocks);
+        myCodeBuffer = ByteBuffer.allocate(coder.getCodeBytes() * chunkBlocks);
+        myOpen = true;
+    }
+
+    /**
+     * @return an OutputStream view of this encoder; closing it closes the encoder
+     */
+    public OutputStream asOutputStream(){
+        return Channels.newOutputStream(this);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if(!myOpen){
+            throw new ClosedChannelException();
+        }
+        int written = src.remaining();
+        while(src.hasRemaining()){
+            int count = Math.min(src.remaining(), myDataBuffer.remaining());
+            int limit = src.limit();
+            src.limit(src.position() + count);
+            myDataBuffer.put(src);
+            src.limit(limit);
+            if(!myDataBuffer.hasRemaining()){
+                encodeAndFlush();
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public boolean isOpen(){
+        return myOpen;
+    }
+
+    /**
+     * Encodes the pending partial block and the trailer block, then closes the wrapped channel.
+     */
+    @Override
+    public void close() throws IOException {
+        if(!myOpen){
+            return;
+        }
+        myOpen = false;
+        try {
+            encodeAndFlush();
+            int dataBytes = myCoder.getDataBytes();
+            int lastBlockBytes = myDataBuffer.position();
+            if(lastBlockBytes > 0){
+                while(myDataBuffer.position() < dataBytes){
+                    myDataBuffer.put((byte) 0);
+                }
+                // frees the buffer for the trailer, which would not fit next to the last block in a one-block chunk
+                encodeAndFlush();
+            }else if(myBlocksWritten > 0){
+                lastBlockBytes = dataBytes;
+            }
+            for(int i = 0; i<dataBytes; i++){
+                myDataBuffer.put(i < 4 ? (byte) (lastBlockBytes >>> (i << 3)) : 0);
+            }
+            encodeAndFlush();
+        } finally {
+            myOut.close();
+        }
+    }
+
+    /**
+     * Encodes all whole blocks in the data buffer and writes them to the wrapped channel.
+     */
+    private void encodeAndFlush() throws IOException {
+        myDataBuffer.flip();
+        myBlocksWritten += myCoder.encodeBlocks(myDataBuffer, myCodeBuffer);
+        myDataBuffer.compact();
+        myCodeBuffer.flip();
+        while(myCodeBuffer.hasRemaining()){
+            myOut.write(myCodeBuffer);
+        }
+        myCodeBuffer.clear();
+    }
+}
@@ -0,0 +1,86 @@
+package code;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Outcome counts of a FaultSimulator run, with rates and Wilson score confidence intervals.
+ */
+public class SimulationResult {
+
+    // two-sided 95% quantile of the standard normal distribution
+    public static final double Z_95 = 1.959963984540054;
+
+    public enum Outcome {
+        // no bit was inverted
+        NO_ERROR,
+        // the payload was recovered, possibly after a correction
+        CORRECTED,
+        // the decoder reported an uncorrectable block
+        DETECTED,
+        // the decoder returned a wrong payload without reporting it
+        SILENT
+    }
+
+    private final long myTrials;
+    private final long myElapsedNanos;
+    private final EnumMap<Outcome, Long> myCounts;
+
+    SimulationResult(long trials, long elapsedNanos, Map<Outcome, Long> counts){
+        myTrials = trials;
+        myElapsedNanos = elapsedNanos;
+        myCounts = new EnumMap<>(counts);
+    }
+
+    public long getTrials(){
+        return myTrials;
+    }
+
+    public long getElapsedNanos(){
+        return myElapsedNanos;
+    }
+
+    public long getCount(Outcome outcome){
+        return myCounts.getOrDefault(outcome, 0L);
+    }
+
+    public double getRate(Outcome outcome){
+        return myTrials == 0 ? 0.0 : (double) getCount(outcome) / myTrials;
+    }
+
+    /**
+     * @return the 95% confidence interval of the rate of outcome, as {lower, upper}
+     */
+    public double[] getConfidenceInterval(Outcome outcome){
+        return getConfidenceInterval(outcome, Z_95);
+    }
+
+    /**
+     * Wilson score interval, which stays meaningful for rates close to 0 such as silent corruption rates.
+     * @param z standard normal quantile of the confidence level, e.g. Z_95
+     * @return the confidence interval of the rate of outcome, as {lower, upper}
+     */
+    public double[] getConfidenceInterval(Outcome outcome, double z){
+        if(myTrials == 0){
+            return new double[]{0.0, 1.0};
+        }
+        double n = myTrials;
+        double p = getRate(outcome);
+        double z2 = z * z;
+        double center = (p + z2 / (2 * n)) / (1 + z2 / n);
+        double halfWidth = z / (1 + z2 / n) * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n));
+        return new double[]{Math.max(0.0, center - halfWidth), Math.min(1.0, center + halfWidth)};
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder();
+        sb.append(myTrials).append(" trials in ").append(myElapsedNanos / 1000000).append(" ms");
+        for(Outcome outcome : Outcome.values()){
+            double[] interval = getConfidenceInterval(outcome);
+            sb.append(String.format("%n%-9s %d (%.3e, 95%% CI %.3e - %.3e)",
+                    outcome, getCount(outcome), getRate(outcome), interval[0], interval[1]));
+        }
+        return sb.toString();
+    }
+}
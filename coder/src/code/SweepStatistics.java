@@ -0,0 +1,78 @@
+package code;
+
+import java.util.Arrays;
+
+/**
+ * Outcome of one complete or interrupted sweep of a Scrubber over its region.
+ */
+public class SweepStatistics {
+
+    private final long mySweep;
+    private final long myStartMillis;
+    private final long myDurationNanos;
+    private final long myScannedBlocks;
+    private final long myCorrectedBlocks;
+    private final int[] myUncorrectableBlocks;
+    private final boolean myComplete;
+
+    SweepStatistics(long sweep, long startMillis, long durationNanos, long scannedBlocks,
+                    long correctedBlocks, int[] uncorrectableBlocks, boolean complete){
+        mySweep = sweep;
+        myStartMillis = startMillis;
+        myDurationNanos = durationNanos;
+        myScannedBlocks = scannedBlocks;
+        myCorrectedBlocks = correctedBlocks;
+        myUncorrectableBlocks = uncorrectableBlocks;
+        myComplete = complete;
+    }
+
+    /**
+     * @return sequence number of the sweep, starting at 1
+     */
+    public long getSweep(){
+        return mySweep;
+    }
+
+    /**
+     * @return wall-clock start time, in milliseconds since the epoch
+     */
+    public long getStartMillis(){
+        return myStartMillis;
+    }
+
+    public long getDurationNanos(){
+        return myDurationNanos;
+    }
+
+    public long getScannedBlocks(){
+        return myScannedBlocks;
+    }
+
+    /**
+     * @return number of blocks in which a single-bit corruption has been repaired
+     */
+    public long getCorrectedBlocks(){
+        return myCorrectedBlocks;
+    }
+
+    /**
+     * @return indices of the blocks found to hold an uncorrectable corruption, in ascending order
+     */
+    public int[] getUncorrectableBlocks(){
+        return myUncorrectableBlocks.clone();
+    }
+
+    /**
+     * @return false if the sweep was cut short by closing the scrubber
+     */
+    public boolean isComplete(){
+        return myComplete;
+    }
+
+    @Override
+    public String toString(){
+        return "Sweep " + mySweep + (myComplete ? "" : " (interrupted)") + ": " + myScannedBlocks + " blocks in "
+                + myDurationNanos / 1000000 + " ms, " + myCorrectedBlocks + " corrected, "
+                + myUncorrectableBlocks.length + " uncorrectable " + Arrays.toString(myUncorrectableBlocks);
+    }
+}
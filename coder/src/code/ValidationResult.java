@@ -0,0 +1,47 @@
+package code;
+
+/**
+ * Outcome of validating a Hamming-encoded bit sequence.
+ * Instances are mutable so that a caller validating many words can reuse one result
+ * instead of catching SingleBitErrorException and DoubleBitErrorException on every corrupted word.
+ */
+public class ValidationResult {
+
+    public enum Status {
+        VALID,
+        SINGLE_BIT_ERROR,
+        DOUBLE_BIT_ERROR
+    }
+
+    private Status myStatus;
+    private int myErrorBitIndex;
+
+    public ValidationResult(){
+        set(Status.VALID, -1);
+    }
+
+    public Status getStatus(){
+        return myStatus;
+    }
+
+    /**
+     * @return index of the corrupted bit if getStatus() is SINGLE_BIT_ERROR, -1 otherwise
+     */
+    public int getErrorBitIndex(){
+        return myErrorBitIndex;
+    }
+
+    public boolean isValid(){
+        return myStatus == Status.VALID;
+    }
+
+    void set(Status status, int errorBitIndex){
+        myStatus = status;
+        myErrorBitIndex = errorBitIndex;
+    }
+
+    @Override
+    public String toString(){
+        return myStatus == Status.SINGLE_BIT_ERROR ? myStatus + " at bit index " + myErrorBitIndex : myStatus.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package code;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * ParityKernel on the incubating Vector API, processing as many items or words per step as the preferred
+ * vector shape holds (4 longs with AVX2, 8 with AVX-512). Lane parity is computed by XOR folding since
+ * there is no lane-wise bit count on every supported JDK. Only loaded by ParityKernels when the
+ * jdk.incubator.vector module is present.
+ */
+final class VectorParityKernel implements ParityKernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public void maskParities(long[] planes, int stride, int count, long[][] masks, long[] out){
+        int lanes = SPECIES.length();
+        int bound = count - count % lanes;
+        for(int i = 0; i<bound; i += lanes){
+            LongVector parities = LongVector.zero(SPECIES);
+            for(int j = 0; j<masks.length; j++){
+                long[] mask = masks[j];
+                LongVector folded = LongVector.zero(SPECIES);
+                for(int s = 0; s<mask.length; s++){
+                    folded = folded.lanewise(VectorOperators.XOR,
+                            LongVector.fromArray(SPECIES, planes, s*stride + i).and(mask[s]));
+                }
+                parities = parities.or(parity(folded).lanewise(VectorOperators.LSHL, j));
+            }
+            parities.intoArray(out, i);
+        }
+        // the remaining items, in place
+        ScalarParityKernel.maskParities(planes, stride, bound, count, masks, out);
+    }
+
+    @Override
+    public int indexSyndrome(long[] words, int fromWord, int toWord){
+        int lanes = SPECIES.length();
+        int bound = toWord - (toWord - fromWord) % lanes;
+        LongVector folded = LongVector.zero(SPECIES);
+        LongVector syndromes = LongVector.zero(SPECIES);
+        // bit index of the first bit of each lane's word
+        LongVector indices = LongVector.zero(SPECIES).addIndex(64).add((long) fromWord << 6);
+        for(int w = fromWord; w<bound; w += lanes){
+            LongVector words64 = LongVector.fromArray(SPECIES, words, w);
+            folded = folded.lanewise(VectorOperators.XOR, words64);
+            // all ones in lanes holding an odd number of set bits
+            LongVector odd = parity(words64).neg();
+            syndromes = syndromes.lanewise(VectorOperators.XOR, indices.and(odd));
+            indices = indices.add((long) lanes << 6);
+        }
+        long foldedTail = folded.reduceLanes(VectorOperators.XOR);
+        int syndrome = (int) syndromes.reduceLanes(VectorOperators.XOR);
+        for(int w = bound; w<toWord; w++){
+            foldedTail ^= words[w];
+            if((Long.bitCount(words[w]) & 1) != 0){
+                syndrome ^= w << 6;
+            }
+        }
+        return syndrome | ScalarParityKernel.lowSyndrome(foldedTail);
+    }
+
+    /**
+     * @return 1 in lanes holding an odd number of set bits, 0 elsewhere
+     */
+    private static LongVector parity(LongVector v){
+        v = v.lanewise(VectorOperators.XOR, v.lanewise(VectorOperators.LSHR, 32));
+        v = v.lanewise(VectorOperators.XOR, v.lanewise(VectorOperators.LSHR, 16));
+        v = v.lanewise(VectorOperators.XOR, v.lanewise(VectorOperators.LSHR, 8));
+        v = v.lanewise(VectorOperators.XOR, v.lanewise(VectorOperators.LSHR, 4));
+        v = v.lanewise(VectorOperators.XOR, v.lanewise(VectorOperators.LSHR, 2));
+        v = v.lanewise(VectorOperators.XOR, v.lanewise(VectorOperators.LSHR, 1));
+        return v.and(1L);
+    }
+}
@@ -1,7 +1,26 @@
 package exception;
 
 public class DoubleBitErrorException extends Exception{
+
+    private final long myBlockIndex;
+
     public DoubleBitErrorException(){
         super();
+        myBlockIndex = -1;
+    }
+
+    /**
+     * @param blockIndex index of the first uncorrectable block
+     */
+    public DoubleBitErrorException(long blockIndex){
+        super("Uncorrectable block " + blockIndex);
+        myBlockIndex = blockIndex;
+    }
+
+    /**
+     * @return index of the first uncorrectable block, or -1 if the error is not located in a block
+     */
+    public long getBlockIndex(){
+        return myBlockIndex;
     }
 }
@@ -2,12 +2,15 @@ package exception;
 
 public class SingleBitErrorException extends Exception{
 
+    private final int myErrorBitIndex;
+
     public SingleBitErrorException(int errorBitIndex){
         super(Integer.toString(errorBitIndex));
+        myErrorBitIndex = errorBitIndex;
     }
 
     public int getErrorBitIndex(){
-        return Integer.valueOf(this.getMessage());
+        return myErrorBitIndex;
     }
 
 }
@@ -1,4 +1,6 @@
 module coder {
+    requires transitive java.management;
+    requires static jdk.incubator.vector;
     exports code;
     exports exception;
-}
\ No newline at end of file
+}
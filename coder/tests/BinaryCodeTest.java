@@ -6,6 +6,7 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 public class BinaryCodeTest {
 
@@ -35,4 +36,78 @@ public class BinaryCodeTest {
         BinaryCode code = new BinaryCode("00011000");
         Assert.assertEquals(code.getBits(),expected);
     }
+
+    @Test
+    public void testBitAccess() throws InvalidInputFormatException{
+        BinaryCode code = new BinaryCode("00011000");
+        Assert.assertTrue(code.getBit(3));
+        Assert.assertFalse(code.getBit(2));
+        code.setBit(2,true);
+        code.flipBit(3);
+        code.setBit(4,false);
+        Assert.assertEquals(code.toString(),"00100000");
+    }
+
+    @Test
+    public void testCardinality() throws InvalidInputFormatException{
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i<200; i++){
+            sb.append(i%3==0?'1':'0');
+        }
+        BinaryCode code = new BinaryCode(sb.toString());
+        for(int from = 0; from<200; from+=7){
+            for(int to = from; to<=200; to+=11){
+                int expected = 0;
+                for(int i = from; i<to; i++){
+                    expected += i%3==0? 1:0;
+                }
+                Assert.assertEquals(code.cardinality(from,to),expected);
+            }
+        }
+    }
+
+    @Test
+    public void testLongAccess() throws InvalidInputFormatException{
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i<150; i++){
+            sb.append('0');
+        }
+        BinaryCode code = new BinaryCode(sb.toString());
+        code.setLong(60,10,0b1011001101L);
+        Assert.assertEquals(code.getLong(60,10),0b1011001101L);
+        Assert.assertEquals(code.cardinality(0,150),6);
+        code.setLong(70,64,-1L);
+        Assert.assertEquals(code.getLong(70,64),-1L);
+        Assert.assertEquals(code.cardinality(0,150),70);
+        Assert.assertEquals(code.getLong(134,16),0L);
+    }
+
+    @Test
+    public void testParseAndFormat() throws InvalidInputFormatException{
+        Random rand = new Random();
+        for(int length = 0; length<300; length++){
+            StringBuilder sb = new StringBuilder();
+            for(int i = 0; i<length; i++){
+                sb.append(rand.nextBoolean() ? '1' : '0');
+            }
+            BinaryCode code = new BinaryCode(sb.toString());
+            Assert.assertEquals(length, (int) code.length());
+            for(int i = 0; i<length; i++){
+                Assert.assertEquals(sb.charAt(i) == '1', code.getBit(i));
+            }
+            Assert.assertEquals(sb.toString(), code.toString());
+        }
+    }
+
+    @Test
+    public void testWhitespaceSkipped() throws InvalidInputFormatException{
+        BinaryCode code = new BinaryCode("0110 1001\r\n11110000\t1\n");
+        Assert.assertEquals("01101001111100001", code.toString());
+        Assert.assertEquals(new BinaryCode("01101001111100001"), code);
+    }
+
+    @Test(expected = InvalidInputFormatException.class)
+    public void testInvalidInLongInput() throws InvalidInputFormatException{
+        new BinaryCode("0101010101010101010101012010101010101010");
+    }
 }
@@ -0,0 +1,50 @@
+import java.util.Random;
+
+import code.BitSlicedEncoder;
+import code.HammingCoder;
+import exception.InvalidInputFormatException;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class BitSlicedEncoderTest {
+
+    @Test
+    public void testMatchesHammingCoder() throws InvalidInputFormatException {
+        Random rand = new Random();
+        HammingCoder coder = HammingCoder.getInstance();
+        for (int dataBits = 1; dataBits<=57; dataBits++){
+            BitSlicedEncoder encoder = new BitSlicedEncoder(dataBits);
+            int count = 1 + rand.nextInt(200);
+            long[] data = new long[count];
+            for (int i = 0; i<count; i++){
+                data[i] = rand.nextLong();
+            }
+            long[] code = new long[count + 1];
+            encoder.encode(data, 0, code, 1, count);
+            for (int i = 0; i<count; i++){
+                StringBuilder bits = new StringBuilder();
+                for (int b = 0; b<dataBits; b++){
+                    bits.append((data[i] >>> b & 1) == 1 ? '1' : '0');
+                }
+                String expected = coder.encode(bits.toString());
+                Assert.assertEquals(expected.length(), encoder.getCodeBits());
+                for (int b = 0; b<64; b++){
+                    Assert.assertEquals(b < expected.length() && expected.charAt(b)=='1', (code[i+1] >>> b & 1) == 1);
+                }
+            }
+
+            long[] decoded = new long[count];
+            encoder.decode(code, 1, decoded, 0, count);
+            long mask = -1L >>> (64 - dataBits);
+            for (int i = 0; i<count; i++){
+                Assert.assertEquals(data[i] & mask, decoded[i]);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRecordTooLarge(){
+        new BitSlicedEncoder(58);
+    }
+}
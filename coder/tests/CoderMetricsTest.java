@@ -0,0 +1,80 @@
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import javax.management.ObjectName;
+
+import code.CoderMetrics;
+import code.HammingCoder;
+import code.SecdedBlockCoder;
+import code.ValidationResult;
+import exception.DoubleBitErrorException;
+import exception.InvalidInputFormatException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class CoderMetricsTest {
+
+    private CoderMetrics metrics = CoderMetrics.getInstance();
+
+    @Before
+    public void setUp(){
+        metrics.reset();
+        metrics.setEnabled(true);
+    }
+
+    @After
+    public void tearDown(){
+        metrics.setEnabled(false);
+        metrics.reset();
+    }
+
+    @Test
+    public void testWordCounters() throws InvalidInputFormatException {
+        HammingCoder coder = HammingCoder.getInstance();
+        String encoded = coder.encode("10110011");
+        coder.decode(encoded);
+        ValidationResult result = new ValidationResult();
+        coder.validate(encoded, result);
+        coder.validate((encoded.charAt(0)=='1' ? "0" : "1") + encoded.substring(1), result);
+
+        CoderMetrics.Snapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(1, snapshot.getWords(CoderMetrics.Operation.ENCODE));
+        Assert.assertEquals(8, snapshot.getBits(CoderMetrics.Operation.ENCODE));
+        Assert.assertEquals(1, snapshot.getWords(CoderMetrics.Operation.DECODE));
+        Assert.assertEquals(2, snapshot.getCalls(CoderMetrics.Operation.VALIDATE));
+        Assert.assertEquals(1, snapshot.getSingleBitErrors());
+        Assert.assertTrue(snapshot.getLatencyPercentileNanos(CoderMetrics.Operation.VALIDATE, 0.99) > 0);
+    }
+
+    @Test
+    public void testBlockCountersAndMBean() throws Exception {
+        SecdedBlockCoder coder = new SecdedBlockCoder(SecdedBlockCoder.DATA_BITS_64);
+        ByteBuffer code = ByteBuffer.allocate(100 * coder.getCodeBytes());
+        coder.encodeBlocks(ByteBuffer.allocate(800), code);
+        code.put(5, (byte) (code.get(5) ^ 0x01));
+        code.put(20, (byte) (code.get(20) ^ 0x03));
+        code.flip();
+        try {
+            coder.correctBlocks(code);
+            Assert.fail();
+        }catch (DoubleBitErrorException e){
+            // block 2 holds two errors
+        }
+        Assert.assertEquals(100, metrics.snapshot().getWords(CoderMetrics.Operation.CORRECT));
+
+        CoderMetrics.registerMBean();
+        ObjectName name = new ObjectName(CoderMetrics.OBJECT_NAME);
+        Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "SingleBitErrors"));
+        Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "DoubleBitErrors"));
+    }
+
+    @Test
+    public void testDisabledByDefault() throws InvalidInputFormatException {
+        metrics.setEnabled(false);
+        HammingCoder.getInstance().encode("1011");
+        Assert.assertEquals(0, metrics.snapshot().getCalls(CoderMetrics.Operation.ENCODE));
+    }
+}
@@ -0,0 +1,126 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import code.BinaryCode;
+import code.EccContainer;
+import code.HammingCoder;
+import code.SecdedBlockCoder;
+import code.ValidationResult;
+import exception.DoubleBitErrorException;
+import exception.InvalidInputFormatException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class EccContainerTest {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("container", ".ecc");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testWordRoundTrip() throws IOException, InvalidInputFormatException, DoubleBitErrorException {
+        String encoded = HammingCoder.getInstance().encode("1011001110001");
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)){
+            EccContainer.writeWord(out, new BinaryCode(encoded));
+        }
+        Assert.assertEquals(EccContainer.HEADER_BYTES + 3, Files.size(file));
+        try (EccContainer container = EccContainer.open(FileChannel.open(file, StandardOpenOption.READ))){
+            Assert.assertEquals(EccContainer.CodeType.WORD, container.getCodeType());
+            Assert.assertEquals(13, container.getOriginalBits());
+            Assert.assertEquals(encoded, container.readWord().toString());
+            ByteBuffer data = ByteBuffer.allocate(2);
+            Assert.assertEquals(13, container.decodeBlock(0, data));
+            Assert.assertEquals(0b11001101, data.get(0) & 0xFF);
+            Assert.assertEquals(0b10001, data.get(1) & 0xFF);
+        }
+    }
+
+    @Test
+    public void testRandomAccessCorrection() throws IOException, DoubleBitErrorException {
+        SecdedBlockCoder coder = new SecdedBlockCoder(SecdedBlockCoder.DATA_BITS_64);
+        byte[] original = new byte[8003];
+        new Random().nextBytes(original);
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)){
+            EccContainer.writeBlocks(out, coder, ByteBuffer.wrap(original));
+        }
+        long blocks = (original.length + 7) / 8;
+        Assert.assertEquals(EccContainer.HEADER_BYTES + blocks * coder.getCodeBytes(), Files.size(file));
+
+        // corrupt one bit of block 500 and two bits of block 700
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[EccContainer.HEADER_BYTES + 500 * coder.getCodeBytes() + 4] ^= 0x08;
+        bytes[EccContainer.HEADER_BYTES + 700 * coder.getCodeBytes() + 1] ^= 0x41;
+        Files.write(file, bytes);
+
+        try (EccContainer container = EccContainer.open(FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE))){
+            Assert.assertEquals(blocks, container.getBlockCount());
+            ValidationResult result = new ValidationResult();
+            Assert.assertTrue(container.validateBlock(499, result).isValid());
+            Assert.assertEquals(35, container.validateBlock(500, result).getErrorBitIndex());
+            Assert.assertEquals(ValidationResult.Status.DOUBLE_BIT_ERROR, container.validateBlock(700, result).getStatus());
+
+            ByteBuffer data = ByteBuffer.allocate(8);
+            container.decodeBlock(500, data);
+            for (int i = 0; i<8; i++){
+                Assert.assertEquals(original[4000+i], data.get(i));
+            }
+            Assert.assertTrue(container.correctBlock(500));
+            Assert.assertFalse(container.correctBlock(500));
+            Assert.assertTrue(container.validateBlock(500, result).isValid());
+
+            data.clear();
+            Assert.assertEquals(24, container.decodeBlock(blocks-1, data));
+            Assert.assertEquals(original[8002], data.get(2));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotAContainer() throws IOException {
+        Files.write(file, new byte[64]);
+        EccContainer.open(FileChannel.open(file, StandardOpenOption.READ)).close();
+    }
+
+    @Test
+    public void testBadHeaders() throws IOException {
+        // block size past the limit, huge block size with a matching code size, missing blocks, negative counts
+        long[][] headers = {
+                {1, 1 << 20, (1 << 20) + 22, 1 << 20, 1},
+                {1, Integer.MAX_VALUE - 1, Integer.MAX_VALUE + 31L, Integer.MAX_VALUE - 1, 1},
+                {1, 64, 72, 64 * 1000000L, 1000000},
+                {1, 64, 72, -64, -1},
+                {0, Integer.MAX_VALUE, Integer.MAX_VALUE + 32L, Integer.MAX_VALUE, 1},
+        };
+        for (long[] fields : headers){
+            ByteBuffer header = ByteBuffer.allocate(EccContainer.HEADER_BYTES + 90).order(ByteOrder.LITTLE_ENDIAN);
+            header.put("HECC".getBytes(StandardCharsets.US_ASCII)).putShort((short) EccContainer.VERSION)
+                    .put((byte) fields[0]).put((byte) 0).putInt((int) fields[1]).putInt((int) fields[2])
+                    .putLong(fields[3]).putLong(fields[4]);
+            Files.write(file, header.array());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+                EccContainer.open(channel);
+                Assert.fail("Accepted header " + Arrays.toString(fields));
+            }catch (IOException e){
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+import code.FaultModel;
+import code.FaultSimulator;
+import code.SecdedBlockCoder;
+import code.SimulationResult;
+import code.SimulationResult.Outcome;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class FaultSimulatorTest {
+
+    private SecdedBlockCoder coder = new SecdedBlockCoder(SecdedBlockCoder.DATA_BITS_64);
+
+    @Test
+    public void testIndependentErrors() throws Exception {
+        double ber = 0.01;
+        SimulationResult result = new FaultSimulator(coder, FaultModel.independent(ber)).run(400000, 42L, 4);
+        long total = 0;
+        for (Outcome outcome : Outcome.values()){
+            total += result.getCount(outcome);
+        }
+        Assert.assertEquals(400000, total);
+        // a block is recovered exactly when a single bit is hit
+        int n = coder.getCodeBits();
+        double single = n * ber * Math.pow(1 - ber, n - 1);
+        double[] interval = result.getConfidenceInterval(Outcome.CORRECTED, 4.0);
+        Assert.assertTrue(interval[0] <= single && single <= interval[1]);
+        interval = result.getConfidenceInterval(Outcome.NO_ERROR, 4.0);
+        Assert.assertTrue(interval[0] <= Math.pow(1 - ber, n) && Math.pow(1 - ber, n) <= interval[1]);
+        Assert.assertTrue(result.getCount(Outcome.SILENT) > 0);
+    }
+
+    @Test
+    public void testShortBurstsNeverSilent() throws Exception {
+        SimulationResult result = new FaultSimulator(coder, FaultModel.burst(1.0, 2)).run(100000, 7L, 3);
+        Assert.assertEquals(0, result.getCount(Outcome.NO_ERROR));
+        Assert.assertEquals(0, result.getCount(Outcome.SILENT));
+        Assert.assertTrue(result.getCount(Outcome.CORRECTED) > 0);
+        Assert.assertTrue(result.getCount(Outcome.DETECTED) > 0);
+    }
+
+    @Test
+    public void testReproducible() throws Exception {
+        FaultSimulator simulator = new FaultSimulator(coder, FaultModel.stuckAt(0.02));
+        SimulationResult first = simulator.run(50000, 3L, 2);
+        SimulationResult second = simulator.run(50000, 3L, 2);
+        for (Outcome outcome : Outcome.values()){
+            Assert.assertEquals(first.getCount(outcome), second.getCount(outcome));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidProbability(){
+        FaultModel.independent(1.5);
+    }
+}
@@ -1,6 +1,18 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import code.BinaryCode;
 import code.HammingCoder;
+import code.ProgressListener;
+import code.ValidationResult;
 import exception.DoubleBitErrorException;
 import exception.InvalidInputFormatException;
 import exception.SingleBitErrorException;
@@ -72,4 +84,275 @@ public class HammingCoderTest {
             coder.validateCode(corrupted);
         }
     }
+
+    @Test
+    public void testGrowingWordSizes() throws InvalidInputFormatException,SingleBitErrorException,DoubleBitErrorException {
+        HammingCoder freshCoder = new HammingCoder();
+        for (int length = 1; length<300; length++){
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i<length; i++){
+                sb.append(i%3==1? '1':'0');
+            }
+            freshCoder.validateCode(freshCoder.encode(sb.toString()));
+        }
+    }
+
+    @Test
+    public void testSingleBitCorruptionDetectionLargeWord() throws InvalidInputFormatException,DoubleBitErrorException {
+        Random rand = new Random();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i<5000; i++){
+            sb.append(rand.nextBoolean()? '1':'0');
+        }
+        String encoded = coder.encode(sb.toString());
+        for (int i = 0; i<100; i++){
+            char[] chars = encoded.toCharArray();
+            int corruptedIdx = rand.nextInt(encoded.length());
+            chars[corruptedIdx] = chars[corruptedIdx]=='1'? '0':'1';
+            try {
+                coder.validateCode(new String(chars));
+                Assert.fail("Should have thrown SingleBitErrorException at index "+corruptedIdx);
+            }catch (SingleBitErrorException e){
+                Assert.assertEquals(corruptedIdx,e.getErrorBitIndex());
+            }
+        }
+    }
+
+    @Test
+    public void testValidationResult() throws InvalidInputFormatException {
+        Random rand = new Random();
+        ValidationResult result = new ValidationResult();
+        for (int i = 0; i<10000; i++){
+            String encoded = coder.encode(Integer.toBinaryString(rand.nextInt(Integer.MAX_VALUE)));
+            BinaryCode code = new BinaryCode(encoded);
+            Assert.assertTrue(coder.validate(code,result).isValid());
+            int corruptedIdxA = rand.nextInt(encoded.length());
+            code.flipBit(corruptedIdxA);
+            coder.validate(code,result);
+            Assert.assertEquals(ValidationResult.Status.SINGLE_BIT_ERROR,result.getStatus());
+            Assert.assertEquals(corruptedIdxA,result.getErrorBitIndex());
+            int corruptedIdxB = (corruptedIdxA+1+rand.nextInt(encoded.length()-1))%encoded.length();
+            code.flipBit(corruptedIdxB);
+            coder.validate(code,result);
+            Assert.assertEquals(ValidationResult.Status.DOUBLE_BIT_ERROR,result.getStatus());
+        }
+    }
+
+    @Test
+    public void testSharedAcrossThreads() throws Exception {
+        HammingCoder shared = HammingCoder.getInstance();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t<8; t++){
+            results.add(executor.submit(() -> {
+                Random rand = new Random();
+                ValidationResult result = new ValidationResult();
+                for (int i = 0; i<2000; i++){
+                    StringBuilder sb = new StringBuilder();
+                    int length = 1+rand.nextInt(600);
+                    for (int j = 0; j<length; j++){
+                        sb.append(rand.nextBoolean()? '1':'0');
+                    }
+                    String encoded = shared.encode(sb.toString());
+                    Assert.assertTrue(shared.validate(encoded,result).isValid());
+                    Assert.assertEquals(sb.toString(),shared.decode(encoded));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : results){
+            future.get();
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testPackedBytes() throws InvalidInputFormatException {
+        Random rand = new Random();
+        ValidationResult result = new ValidationResult();
+        for (int i = 0; i<500; i++){
+            int length = rand.nextInt(700);
+            byte[] data = new byte[(length+7)/8];
+            rand.nextBytes(data);
+            StringBuilder bits = new StringBuilder();
+            for (int j = 0; j<length; j++){
+                bits.append((data[j/8] >>> (j%8) & 1) == 1 ? '1' : '0');
+            }
+            // direct big-endian buffers must give the same bytes as heap arrays
+            ByteBuffer code = ByteBuffer.allocateDirect((coder.encodedLength(length)+7)/8).order(ByteOrder.BIG_ENDIAN);
+            int codeBits = coder.encode(ByteBuffer.wrap(data), length, code);
+            Assert.assertEquals(coder.encodedLength(length), codeBits);
+            Assert.assertFalse(code.hasRemaining());
+            String encoded = coder.encode(bits.toString());
+            for (int j = 0; j<codeBits; j++){
+                Assert.assertEquals(encoded.charAt(j)=='1', (code.get(j/8) >>> (j%8) & 1) == 1);
+            }
+
+            byte[] codeBytes = new byte[code.capacity()];
+            code.flip();
+            code.get(codeBytes);
+            Assert.assertTrue(coder.validate(codeBytes, codeBits, result).isValid());
+            int flipped = rand.nextInt(codeBits);
+            codeBytes[flipped/8] ^= 1 << (flipped%8);
+            Assert.assertEquals(flipped, coder.validate(codeBytes, codeBits, result).getErrorBitIndex());
+            codeBytes[flipped/8] ^= 1 << (flipped%8);
+
+            byte[] decoded = new byte[data.length];
+            Assert.assertEquals(length, coder.decode(codeBytes, codeBits, decoded));
+            if(length%8 != 0){
+                data[data.length-1] &= (1 << (length%8)) - 1;
+            }
+            Assert.assertArrayEquals(data, decoded);
+        }
+    }
+
+    @Test(expected = java.nio.BufferOverflowException.class)
+    public void testPackedOutputTooSmall(){
+        coder.encode(new byte[8], 64, new byte[8]);
+    }
+
+    @Test
+    public void testDecodeAndCorrect() throws InvalidInputFormatException {
+        Random rand = new Random();
+        ValidationResult result = new ValidationResult();
+        for (int i = 0; i<1000; i++){
+            String original = Integer.toBinaryString(rand.nextInt(Integer.MAX_VALUE));
+            String encoded = coder.encode(original);
+            Assert.assertEquals(original, coder.decodeAndCorrect(encoded, result));
+            Assert.assertTrue(result.isValid());
+            int flipped = rand.nextInt(encoded.length());
+            Assert.assertEquals(original, coder.decodeAndCorrect(flip(encoded, flipped), result));
+            Assert.assertEquals(flipped, result.getErrorBitIndex());
+            int second = (flipped + 1 + rand.nextInt(encoded.length()-1)) % encoded.length();
+            coder.decodeAndCorrect(flip(flip(encoded, flipped), second), result);
+            Assert.assertEquals(ValidationResult.Status.DOUBLE_BIT_ERROR, result.getStatus());
+        }
+    }
+
+    private static String flip(String bits, int index){
+        char[] chars = bits.toCharArray();
+        chars[index] = chars[index]=='1' ? '0' : '1';
+        return new String(chars);
+    }
+
+    @Test
+    public void testCorrectInPlace() throws InvalidInputFormatException {
+        Random rand = new Random();
+        ValidationResult result = new ValidationResult();
+        for (int i = 0; i<500; i++){
+            String encoded = coder.encode(Integer.toBinaryString(rand.nextInt(Integer.MAX_VALUE)) + Long.toBinaryString(rand.nextLong()));
+            int offset = rand.nextInt(100);
+            byte[] bytes = new byte[(offset + encoded.length() + 7)/8 + rand.nextInt(3)];
+            rand.nextBytes(bytes);
+            for (int j = 0; j<encoded.length(); j++){
+                int bit = offset + j;
+                bytes[bit/8] = (byte) (encoded.charAt(j)=='1' ? bytes[bit/8] | 1 << (bit%8) : bytes[bit/8] & ~(1 << (bit%8)));
+            }
+            byte[] expected = bytes.clone();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes).order(i%2 == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+            Assert.assertTrue(coder.correctInPlace(buffer, offset, encoded.length(), result).isValid());
+
+            int flipped = rand.nextInt(encoded.length());
+            bytes[(offset+flipped)/8] ^= 1 << ((offset+flipped)%8);
+            Assert.assertEquals(flipped, coder.correctInPlace(buffer, offset, encoded.length(), result).getErrorBitIndex());
+            Assert.assertArrayEquals(expected, bytes);
+
+            bytes[(offset+1)/8] ^= 1 << ((offset+1)%8);
+            bytes[(offset+2)/8] ^= 1 << ((offset+2)%8);
+            Assert.assertEquals(ValidationResult.Status.DOUBLE_BIT_ERROR, coder.correctInPlace(buffer, offset, encoded.length(), result).getStatus());
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testCorrectInPlacePastLimit() throws InvalidInputFormatException {
+        String encoded = coder.encode("1011001110001111");
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.limit((encoded.length() + 7)/8 - 1);
+        coder.correctInPlace(buffer, 0, encoded.length(), new ValidationResult());
+    }
+
+    @Test
+    public void testCorrectInPlaceNearMaxLength(){
+        // a word of Integer.MAX_VALUE zero bits, starting past bit Integer.MAX_VALUE - 100 of the array
+        long[] words = new long[(1 << 25) + 2];
+        int offset = 100;
+        int errorBit = Integer.MAX_VALUE - 2;
+        ValidationResult result = new ValidationResult();
+        Assert.assertTrue(coder.correctInPlace(words, offset, Integer.MAX_VALUE, result).isValid());
+        long bit = (long) offset + errorBit;
+        words[(int) (bit >>> 6)] ^= 1L << bit;
+        Assert.assertEquals(errorBit, coder.correctInPlace(words, offset, Integer.MAX_VALUE, result).getErrorBitIndex());
+        for (long word : words){
+            Assert.assertEquals(0L, word);
+        }
+    }
+
+    @Test
+    public void testUpdate() throws InvalidInputFormatException {
+        Random rand = new Random();
+        for (int i = 0; i<200; i++){
+            int length = 1 + rand.nextInt(300);
+            char[] data = new char[length];
+            for (int j = 0; j<length; j++){
+                data[j] = rand.nextBoolean() ? '1' : '0';
+            }
+            BinaryCode code = new BinaryCode(coder.encode(new String(data)));
+            int[] indices = new int[1 + rand.nextInt(5)];
+            boolean[] values = new boolean[indices.length];
+            for (int j = 0; j<indices.length; j++){
+                indices[j] = rand.nextInt(length);
+                values[j] = rand.nextBoolean();
+                data[indices[j]] = values[j] ? '1' : '0';
+            }
+            coder.update(code, indices, values);
+            Assert.assertEquals(coder.encode(new String(data)), code.toString());
+
+            int index = rand.nextInt(length);
+            boolean value = data[index] == '0';
+            data[index] = value ? '1' : '0';
+            code.flipBit(0);
+            coder.update(code, index, value);
+            Assert.assertEquals(flip(coder.encode(new String(data)), 0), code.toString());
+        }
+    }
+
+    @Test
+    public void testProgress() throws InvalidInputFormatException {
+        Random rand = new Random(7);
+        char[] data = new char[3 << 20];
+        for (int i = 0; i<data.length; i++){
+            data[i] = rand.nextBoolean() ? '1' : '0';
+        }
+        List<Long> reports = new ArrayList<>();
+        ProgressListener listener = (done, total) -> {
+            Assert.assertTrue(done <= total);
+            Assert.assertTrue(reports.isEmpty() || reports.get(reports.size() - 1) <= done);
+            reports.add(done);
+            return true;
+        };
+        BinaryCode code = new BinaryCode(new String(data), listener);
+        assertCompleted(reports, data.length);
+        BinaryCode encoded = coder.encode(code, listener);
+        assertCompleted(reports, -1);
+        BinaryCode decoded = coder.decodeAndCorrect(encoded, new ValidationResult(), listener);
+        assertCompleted(reports, -1);
+        Assert.assertEquals(new String(data), decoded.toString(listener));
+        assertCompleted(reports, data.length);
+    }
+
+    private static void assertCompleted(List<Long> reports, long total){
+        Assert.assertTrue(reports.size() > 2);
+        if (total >= 0){
+            Assert.assertEquals(total, (long) reports.get(reports.size() - 1));
+        }
+        reports.clear();
+    }
+
+    @Test(expected = CancellationException.class)
+    public void testCancel() throws InvalidInputFormatException {
+        char[] data = new char[3 << 20];
+        Arrays.fill(data, '1');
+        BinaryCode code = new BinaryCode(new String(data));
+        coder.encode(code, (done, total) -> done < total / 2);
+    }
 }
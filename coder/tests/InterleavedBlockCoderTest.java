@@ -0,0 +1,72 @@
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import code.InterleavedBlockCoder;
+import code.SecdedBlockCoder;
+import exception.DoubleBitErrorException;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class InterleavedBlockCoderTest {
+
+    private Random rand = new Random();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        for (int depth : new int[]{1, 3, 16, 64}){
+            InterleavedBlockCoder coder = new InterleavedBlockCoder(SecdedBlockCoder.forDataBits(64), depth);
+            byte[] original = new byte[5 * coder.getFrameDataBytes()];
+            rand.nextBytes(original);
+            ByteBuffer code = ByteBuffer.allocate(5 * coder.getFrameCodeBytes());
+            Assert.assertEquals(5, coder.encodeFrames(ByteBuffer.wrap(original), code));
+            code.flip();
+            ByteBuffer decoded = ByteBuffer.allocate(original.length);
+            Assert.assertEquals(0, coder.decodeFrames(code, decoded));
+            Assert.assertArrayEquals(original, decoded.array());
+        }
+    }
+
+    @Test
+    public void testBurstCorrected() throws Exception {
+        InterleavedBlockCoder coder = new InterleavedBlockCoder(SecdedBlockCoder.forDataBits(128), 24);
+        byte[] original = new byte[3 * coder.getFrameDataBytes()];
+        rand.nextBytes(original);
+        ByteBuffer code = ByteBuffer.allocate(3 * coder.getFrameCodeBytes());
+        coder.encodeFrames(ByteBuffer.wrap(original), code);
+        // a burst of depth bits, straddling the first two frames
+        int start = coder.getFrameCodeBytes() * 8 - 10;
+        for (int bit = start; bit<start + 24; bit++){
+            code.put(bit >>> 3, (byte) (code.get(bit >>> 3) ^ (1 << (bit & 7))));
+        }
+        code.rewind();
+        ByteBuffer decoded = ByteBuffer.allocate(original.length);
+        Assert.assertEquals(24, coder.decodeFrames(code, decoded));
+        Assert.assertArrayEquals(original, decoded.array());
+    }
+
+    @Test
+    public void testLongerBurstDetected() throws Exception {
+        InterleavedBlockCoder coder = new InterleavedBlockCoder(SecdedBlockCoder.forDataBits(64), 8);
+        ByteBuffer code = ByteBuffer.allocate(2 * coder.getFrameCodeBytes());
+        coder.encodeFrames(ByteBuffer.allocate(2 * coder.getFrameDataBytes()), code);
+        int start = coder.getFrameCodeBytes() * 8 + 5;
+        for (int bit = start; bit<start + 9; bit++){
+            code.put(bit >>> 3, (byte) (code.get(bit >>> 3) ^ (1 << (bit & 7))));
+        }
+        code.rewind();
+        ByteBuffer decoded = ByteBuffer.allocate(2 * coder.getFrameDataBytes());
+        try {
+            coder.decodeFrames(code, decoded);
+            Assert.fail();
+        } catch (DoubleBitErrorException e){
+            Assert.assertEquals(coder.getFrameCodeBytes(), code.position());
+            Assert.assertEquals(coder.getFrameDataBytes(), decoded.position());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidDepth(){
+        new InterleavedBlockCoder(SecdedBlockCoder.forDataBits(64), 65);
+    }
+}
@@ -0,0 +1,88 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import code.ParallelBlockCoder;
+import code.SecdedBlockCoder;
+import exception.DoubleBitErrorException;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+public class ParallelBlockCoderTest {
+
+    private static ForkJoinPool pool;
+
+    private SecdedBlockCoder coder = new SecdedBlockCoder(SecdedBlockCoder.DATA_BITS_64);
+    private ParallelBlockCoder parallelCoder = new ParallelBlockCoder(coder, pool, 100);
+
+    @BeforeClass
+    public static void setUpPool(){
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void tearDownPool(){
+        pool.shutdown();
+    }
+
+    @Test
+    public void testMatchesSequentialEncoding() {
+        byte[] data = new byte[8*100000+5];
+        new Random().nextBytes(data);
+        ByteBuffer sequential = ByteBuffer.allocate(9*100000);
+        coder.encodeBlocks(ByteBuffer.wrap(data), sequential);
+        ByteBuffer parallel = ByteBuffer.allocateDirect(9*100000).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer input = ByteBuffer.wrap(data);
+        Assert.assertEquals(100000,parallelCoder.encodeBlocks(input, parallel));
+        Assert.assertEquals(8*100000,input.position());
+        parallel.flip();
+        sequential.flip();
+        Assert.assertEquals(sequential,parallel);
+    }
+
+    @Test
+    public void testDecodeAndScrub() throws DoubleBitErrorException {
+        Random rand = new Random();
+        byte[] data = new byte[8*50000];
+        rand.nextBytes(data);
+        ByteBuffer code = ByteBuffer.allocate(9*50000);
+        parallelCoder.encodeBlocks(ByteBuffer.wrap(data), code);
+        byte[] clean = code.array().clone();
+        for (int block = 0; block<50000; block+=3){
+            int bit = rand.nextInt(coder.getCodeBits());
+            code.array()[block*9 + bit/8] ^= 1 << (bit%8);
+        }
+        code.flip();
+        ByteBuffer decoded = ByteBuffer.allocate(data.length);
+        Assert.assertEquals(16667,parallelCoder.decodeBlocks(code.duplicate(), decoded));
+        Assert.assertArrayEquals(data,decoded.array());
+        Assert.assertEquals(16667,parallelCoder.scrubBlocks(code));
+        Assert.assertArrayEquals(clean,code.array());
+    }
+
+    @Test
+    public void testDoubleBitCorruption() {
+        ByteBuffer code = ByteBuffer.allocate(9*1000);
+        parallelCoder.encodeBlocks(ByteBuffer.allocate(8*1000), code);
+        code.array()[9*700] ^= 0x03;
+        code.array()[9*500] ^= 0x03;
+        code.flip();
+        try {
+            parallelCoder.decodeBlocks(code.duplicate(), ByteBuffer.allocate(8*1000));
+            Assert.fail();
+        }catch (DoubleBitErrorException e){
+            Assert.assertEquals(500, e.getBlockIndex());
+        }
+        try {
+            parallelCoder.scrubBlocks(code.position(9*100));
+            Assert.fail();
+        }catch (DoubleBitErrorException e){
+            // counted from the position of code
+            Assert.assertEquals(400, e.getBlockIndex());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.Arrays;
+import java.util.Random;
+
+import code.ProtectedBuffer;
+import code.SecdedBlockCoder;
+import exception.DoubleBitErrorException;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class ProtectedBufferTest {
+
+    private Random rand = new Random();
+
+    @Test
+    public void testUnalignedAccess() throws Exception {
+        ProtectedBuffer buffer = new ProtectedBuffer(SecdedBlockCoder.forDataBits(128), 1000, false);
+        byte[] expected = new byte[1000];
+        for (int i = 0; i<200; i++){
+            int index = rand.nextInt(1000);
+            byte[] bytes = new byte[rand.nextInt(1000 - index + 1)];
+            rand.nextBytes(bytes);
+            buffer.put(index, bytes, 0, bytes.length);
+            System.arraycopy(bytes, 0, expected, index, bytes.length);
+        }
+        byte[] actual = new byte[1000];
+        buffer.get(0, actual, 0, 1000);
+        Assert.assertArrayEquals(expected, actual);
+        Assert.assertEquals(expected[999], buffer.get(999));
+        byte[] part = new byte[30];
+        buffer.get(501, part, 0, 30);
+        Assert.assertArrayEquals(Arrays.copyOfRange(expected, 501, 531), part);
+    }
+
+    @Test
+    public void testReadCorrectsTouchedBlocks() throws Exception {
+        ProtectedBuffer buffer = ProtectedBuffer.allocate(64);
+        buffer.put(20, (byte) 0x5A);
+        buffer.getRegion().injectFault(2, 11);
+        buffer.getRegion().injectFault(5, 3);
+        buffer.getRegion().injectFault(5, 60);
+        Assert.assertEquals(0x5A, buffer.get(20));
+        // the repair is stored, so a second fault in the same block is still correctable
+        buffer.getRegion().injectFault(2, 30);
+        Assert.assertEquals(0x5A, buffer.get(20));
+        // a partial write keeps the other bytes of the block
+        buffer.put(21, (byte) 1);
+        Assert.assertEquals(0x5A, buffer.get(20));
+        try {
+            buffer.get(40);
+            Assert.fail();
+        } catch (DoubleBitErrorException e){
+            // block 5 is uncorrectable
+        }
+    }
+
+    @Test
+    public void testTrustedEpoch() throws Exception {
+        ProtectedBuffer buffer = new ProtectedBuffer(SecdedBlockCoder.forDataBits(64), 16, true);
+        buffer.put(0, (byte) 7);
+        // corrupts data bit 0 of byte 0, at code position 3
+        buffer.getRegion().injectFault(0, 3);
+        Assert.assertEquals(6, buffer.get(0));
+        buffer.newEpoch();
+        Assert.assertEquals(7, buffer.get(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutOfBounds() throws Exception {
+        ProtectedBuffer.allocate(10).get(8, new byte[4], 0, 4);
+    }
+}
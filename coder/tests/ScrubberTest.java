@@ -0,0 +1,144 @@
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import code.EccRegion;
+import code.Scrubber;
+import code.SecdedBlockCoder;
+import code.SweepStatistics;
+import exception.DoubleBitErrorException;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class ScrubberTest {
+
+    private SecdedBlockCoder coder = new SecdedBlockCoder(SecdedBlockCoder.DATA_BITS_64);
+
+    @Test
+    public void testSweepRepairsSingleBitErrors() throws Exception {
+        Random rand = new Random();
+        EccRegion region = new EccRegion(coder, 20000);
+        byte[] original = new byte[(int) region.getDataBytes()];
+        rand.nextBytes(original);
+        ByteBuffer data = ByteBuffer.wrap(original);
+        for (int block = 0; block<region.getNumBlocks(); block++){
+            region.writeBlock(block, data);
+        }
+        for (int block = 0; block<region.getNumBlocks(); block += 400){
+            region.injectFault(block, rand.nextInt(coder.getCodeBits()));
+        }
+        region.injectFault(1001, 3);
+        region.injectFault(1001, 40);
+        region.injectFault(15003, 0);
+        region.injectFault(15003, 71);
+
+        try (Scrubber scrubber = new Scrubber(region, 4, 0, 1000)){
+            SweepStatistics sweep = scrubber.sweep();
+            Assert.assertTrue(sweep.isComplete());
+            Assert.assertEquals(20000, sweep.getScannedBlocks());
+            Assert.assertEquals(50, sweep.getCorrectedBlocks());
+            Assert.assertArrayEquals(new int[]{1001, 15003}, sweep.getUncorrectableBlocks());
+
+            sweep = scrubber.sweep();
+            Assert.assertEquals(2, sweep.getSweep());
+            Assert.assertEquals(0, sweep.getCorrectedBlocks());
+            Assert.assertSame(sweep, scrubber.getLastSweep());
+        }
+
+        ByteBuffer block = ByteBuffer.allocate(8);
+        Assert.assertFalse(region.readBlock(400, block));
+        Assert.assertEquals(ByteBuffer.wrap(original, 3200, 8), block.flip());
+        try {
+            region.readBlock(1001, block.clear());
+            Assert.fail();
+        }catch (DoubleBitErrorException e){
+            // two errors in the same block
+        }
+    }
+
+    @Test
+    public void testPauseAndRateLimit() throws Exception {
+        EccRegion region = new EccRegion(coder, 10000);
+        region.injectFault(9999, 5);
+        try (Scrubber scrubber = new Scrubber(region, 2, 40000, 60000)){
+            scrubber.pause();
+            scrubber.start();
+            Thread.sleep(200);
+            Assert.assertNull(scrubber.getLastSweep());
+            scrubber.resume();
+            long deadline = System.currentTimeMillis() + 10000;
+            while (scrubber.getLastSweep() == null && System.currentTimeMillis() < deadline){
+                Thread.sleep(10);
+            }
+            SweepStatistics sweep = scrubber.getLastSweep();
+            Assert.assertEquals(1, sweep.getCorrectedBlocks());
+            // 10000 blocks at 40000 blocks per second
+            Assert.assertTrue(sweep.toString(), sweep.getDurationNanos() >= 200000000L);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSweepAfterClose() throws Exception {
+        Scrubber scrubber = new Scrubber(new EccRegion(coder, 10), 1, 0, 1000);
+        scrubber.close();
+        scrubber.sweep();
+    }
+
+    @Test
+    public void testConcurrentWrites() throws Exception {
+        Random rand = new Random();
+        EccRegion region = new EccRegion(coder, 1);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong scrubbed = new AtomicLong();
+        Scrubber[] scrubbers = new Scrubber[4];
+        Thread[] sweepers = new Thread[scrubbers.length];
+        for (int i = 0; i<scrubbers.length; i++){
+            Scrubber scrubber = new Scrubber(region, 1, 0, 1000);
+            scrubbers[i] = scrubber;
+            sweepers[i] = new Thread(() -> {
+                try {
+                    while (!done.get()){
+                        scrubbed.addAndGet(scrubber.sweep().getCorrectedBlocks());
+                    }
+                }catch (InterruptedException e){
+                    Thread.currentThread().interrupt();
+                }
+            });
+            sweepers[i].start();
+        }
+        try {
+            // rewriting a block must never be undone or corrupted by a repair racing with it
+            byte[] bytes = new byte[8];
+            ByteBuffer read = ByteBuffer.allocate(8);
+            for (int i = 0; i<50000; i++){
+                rand.nextBytes(bytes);
+                region.writeBlock(0, ByteBuffer.wrap(bytes));
+                Assert.assertFalse(region.readBlock(0, read.clear()));
+                Assert.assertEquals(ByteBuffer.wrap(bytes), read.flip());
+            }
+            Assert.assertEquals(0, scrubbed.get());
+
+            // each fault is repaired exactly once, by a scrubber or by the reader
+            long repairedByReader = 0;
+            int faults = 200000;
+            for (int i = 0; i<faults; i++){
+                region.injectFault(0, rand.nextInt(coder.getCodeBits()));
+                if (region.readBlock(0, read.clear())){
+                    repairedByReader++;
+                }
+            }
+            done.set(true);
+            for (Thread sweeper : sweepers){
+                sweeper.join();
+            }
+            Assert.assertEquals(faults, scrubbed.get() + repairedByReader);
+        } finally {
+            done.set(true);
+            for (Scrubber scrubber : scrubbers){
+                scrubber.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import code.BinaryCode;
+import code.HammingCoder;
+import code.SecdedBlockCoder;
+import code.ValidationResult;
+import exception.DoubleBitErrorException;
+import exception.InvalidInputFormatException;
+import exception.SingleBitErrorException;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class SecdedBlockCoderTest {
+
+    private SecdedBlockCoder coder = new SecdedBlockCoder(SecdedBlockCoder.DATA_BITS_64);
+
+    @Test
+    public void testBlockSizes() {
+        Assert.assertEquals(72,new SecdedBlockCoder(SecdedBlockCoder.DATA_BITS_64).getCodeBits());
+        Assert.assertEquals(137,new SecdedBlockCoder(SecdedBlockCoder.DATA_BITS_128).getCodeBits());
+        Assert.assertEquals(13,new SecdedBlockCoder(8).getCodeBits());
+    }
+
+    @Test
+    public void testMatchesHammingCoder() throws InvalidInputFormatException {
+        Random rand = new Random();
+        HammingCoder hammingCoder = new HammingCoder();
+        for (int dataBits = 1; dataBits<=130; dataBits++){
+            SecdedBlockCoder blockCoder = new SecdedBlockCoder(dataBits);
+            String original = randomBits(rand, dataBits);
+            Assert.assertEquals(hammingCoder.encode(original),blockCoder.encode(original));
+        }
+    }
+
+    @Test
+    public void testRecoverBits() throws InvalidInputFormatException,DoubleBitErrorException {
+        Random rand = new Random();
+        for (int i = 0; i<1000; i++){
+            String original = randomBits(rand, rand.nextInt(1000));
+            String encoded = coder.encode(original);
+            Assert.assertEquals(coder.encodedLength(original.length()),encoded.length());
+            Assert.assertEquals(original,coder.decode(encoded,original.length()));
+        }
+    }
+
+    @Test
+    public void testCorrectOneErrorPerBlock() throws InvalidInputFormatException,DoubleBitErrorException {
+        Random rand = new Random();
+        for (int i = 0; i<1000; i++){
+            String original = randomBits(rand, 1+rand.nextInt(1000));
+            BinaryCode encoded = new BinaryCode(coder.encode(original));
+            BinaryCode corrupted = new BinaryCode(encoded.toString());
+            int numBlocks = coder.numBlocks(original.length());
+            for (int block = 0; block<numBlocks; block++){
+                corrupted.flipBit(block*coder.getCodeBits()+rand.nextInt(coder.getCodeBits()));
+            }
+            Assert.assertEquals(original,coder.decode(corrupted,original.length()).toString());
+            Assert.assertEquals(numBlocks,coder.correct(corrupted));
+            Assert.assertEquals(encoded,corrupted);
+        }
+    }
+
+    @Test
+    public void testSingleBitCorruptionDetection() throws InvalidInputFormatException,DoubleBitErrorException {
+        Random rand = new Random();
+        BinaryCode encoded = new BinaryCode(coder.encode(randomBits(rand, 640)));
+        for (int i = 0; i<1000; i++){
+            int corruptedIdx = rand.nextInt(encoded.length());
+            encoded.flipBit(corruptedIdx);
+            try {
+                coder.validateBlock(encoded,corruptedIdx/coder.getCodeBits());
+                Assert.fail("Should have thrown SingleBitErrorException at index "+corruptedIdx);
+            }catch (SingleBitErrorException e){
+                Assert.assertEquals(corruptedIdx,e.getErrorBitIndex());
+            }
+            encoded.flipBit(corruptedIdx);
+        }
+    }
+
+    @Test
+    public void testDoubleBitCorruptionDetection() throws InvalidInputFormatException {
+        Random rand = new Random();
+        BinaryCode encoded = new BinaryCode(coder.encode(randomBits(rand, 64)));
+        for (int i = 0; i<1000; i++){
+            int corruptedIdxA = rand.nextInt(encoded.length());
+            int corruptedIdxB = (corruptedIdxA+1+rand.nextInt(encoded.length()-1))%encoded.length();
+            BinaryCode corrupted = new BinaryCode(encoded.toString());
+            corrupted.flipBit(corruptedIdxA);
+            corrupted.flipBit(corruptedIdxB);
+            try {
+                coder.validateBlock(corrupted,0);
+                Assert.fail("Should have thrown DoubleBitErrorException");
+            }catch (SingleBitErrorException e){
+                Assert.fail("Double-bit corruption reported as single-bit corruption");
+            }catch (DoubleBitErrorException e){
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testTableEngineMatchesMaskEngine() throws Exception {
+        Random rand = new Random();
+        for (int dataBits = 1; dataBits<=130; dataBits++){
+            SecdedBlockCoder mask = new SecdedBlockCoder(dataBits, SecdedBlockCoder.Engine.MASK);
+            SecdedBlockCoder table = new SecdedBlockCoder(dataBits, SecdedBlockCoder.Engine.TABLE);
+            BinaryCode data = new BinaryCode(randomBits(rand, 3*dataBits));
+            BinaryCode encoded = mask.encode(data);
+            Assert.assertEquals(encoded, table.encode(data));
+            for (int bit = 0; bit<mask.getCodeBits(); bit++){
+                BinaryCode corrupted = new BinaryCode(encoded.toString());
+                corrupted.flipBit(mask.getCodeBits() + bit);
+                corrupted.flipBit(2*mask.getCodeBits() + bit);
+                corrupted.flipBit(2*mask.getCodeBits() + (bit+1)%mask.getCodeBits());
+                for (int block = 0; block<3; block++){
+                    Assert.assertEquals(mask.validateBlock(corrupted, block, new ValidationResult()).getStatus(),
+                            table.validateBlock(corrupted, block, new ValidationResult()).getStatus());
+                }
+            }
+        }
+        for (int dataBits : new int[]{8, 64, 128, 1024}){
+            SecdedBlockCoder mask = new SecdedBlockCoder(dataBits, SecdedBlockCoder.Engine.MASK);
+            SecdedBlockCoder table = new SecdedBlockCoder(dataBits, SecdedBlockCoder.Engine.TABLE);
+            byte[] data = new byte[1000 * mask.getDataBytes()];
+            rand.nextBytes(data);
+            ByteBuffer maskCode = ByteBuffer.allocate(1000 * mask.getCodeBytes());
+            ByteBuffer tableCode = ByteBuffer.allocate(1000 * mask.getCodeBytes());
+            mask.encodeBlocks(ByteBuffer.wrap(data), maskCode);
+            table.encodeBlocks(ByteBuffer.wrap(data), tableCode);
+            Assert.assertArrayEquals(maskCode.array(), tableCode.array());
+            for (int block = 0; block<1000; block++){
+                int bit = rand.nextInt(mask.getCodeBits());
+                int index = block * mask.getCodeBytes() + bit / 8;
+                tableCode.put(index, (byte) (tableCode.get(index) ^ (1 << (bit % 8))));
+            }
+            tableCode.rewind();
+            ByteBuffer decoded = ByteBuffer.allocate(data.length);
+            table.decodeBlocks(tableCode.duplicate(), decoded);
+            Assert.assertArrayEquals(data, decoded.array());
+            table.correctBlocks(tableCode);
+            Assert.assertArrayEquals(maskCode.array(), tableCode.array());
+        }
+    }
+
+    @Test
+    public void testTableEngineFallsBackForLargeBlocks(){
+        Assert.assertEquals(SecdedBlockCoder.Engine.TABLE, new SecdedBlockCoder(1024, SecdedBlockCoder.Engine.TABLE).getEngine());
+        Assert.assertEquals(SecdedBlockCoder.Engine.MASK, new SecdedBlockCoder(1 << 13, SecdedBlockCoder.Engine.TABLE).getEngine());
+    }
+
+    @Test
+    public void testUpdate() throws InvalidInputFormatException {
+        Random rand = new Random();
+        for (int i = 0; i<200; i++){
+            char[] data = randomBits(rand, 1 + rand.nextInt(500)).toCharArray();
+            BinaryCode code = new BinaryCode(coder.encode(new String(data)));
+            int[] indices = new int[1 + rand.nextInt(8)];
+            boolean[] values = new boolean[indices.length];
+            for (int j = 0; j<indices.length; j++){
+                indices[j] = rand.nextInt(data.length);
+                values[j] = rand.nextBoolean();
+                data[indices[j]] = values[j] ? '1' : '0';
+            }
+            coder.update(code, indices, values);
+            Assert.assertEquals(coder.encode(new String(data)), code.toString());
+        }
+    }
+
+    private String randomBits(Random rand, int length){
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i<length; i++){
+            sb.append(rand.nextBoolean()? '1':'0');
+        }
+        return sb.toString();
+    }
+}
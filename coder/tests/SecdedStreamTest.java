@@ -0,0 +1,126 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import code.SecdedBlockCoder;
+import code.SecdedDecoder;
+import code.SecdedEncoder;
+import exception.DoubleBitErrorException;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class SecdedStreamTest {
+
+    private SecdedBlockCoder coder = new SecdedBlockCoder(SecdedBlockCoder.DATA_BITS_64);
+
+    @Test
+    public void testRecoverBytes() throws IOException {
+        Random rand = new Random();
+        for (int length : new int[]{0, 1, 7, 8, 9, 64, 1000, 8192, 8193, 100000}){
+            byte[] original = new byte[length];
+            rand.nextBytes(original);
+            byte[] encoded = encode(original);
+            Assert.assertEquals((coder.numBlocks(length*8)+1)*coder.getCodeBytes(),encoded.length);
+            Assert.assertArrayEquals(original,decode(encoded));
+        }
+    }
+
+    @Test
+    public void testLargeBlocks() throws IOException {
+        SecdedBlockCoder largeCoder = new SecdedBlockCoder(SecdedBlockCoder.DATA_BITS_128);
+        byte[] original = new byte[5000];
+        new Random().nextBytes(original);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream encoder = new SecdedEncoder(largeCoder, out).asOutputStream()){
+            encoder.write(original);
+        }
+        byte[] encoded = out.toByteArray();
+        encoded[100] ^= 0x10;
+        SecdedDecoder decoder = new SecdedDecoder(largeCoder, new ByteArrayInputStream(encoded));
+        Assert.assertArrayEquals(original,decoder.asInputStream().readAllBytes());
+        Assert.assertEquals(1,decoder.getCorrectedBlocks());
+    }
+
+    @Test
+    public void testCorrectOneErrorPerBlock() throws IOException {
+        Random rand = new Random();
+        byte[] original = new byte[10000];
+        rand.nextBytes(original);
+        byte[] encoded = encode(original);
+        int numBlocks = encoded.length / coder.getCodeBytes();
+        for (int block = 0; block<numBlocks; block++){
+            int bit = rand.nextInt(coder.getCodeBits());
+            encoded[block*coder.getCodeBytes() + bit/8] ^= 1 << (bit%8);
+        }
+        SecdedDecoder decoder = new SecdedDecoder(coder, new ByteArrayInputStream(encoded));
+        Assert.assertArrayEquals(original,decoder.asInputStream().readAllBytes());
+        Assert.assertEquals(numBlocks,decoder.getCorrectedBlocks());
+    }
+
+    @Test
+    public void testDoubleBitCorruption() throws IOException {
+        byte[] encoded = encode(new byte[100]);
+        encoded[20] ^= 0x03;
+        try {
+            decode(encoded);
+            Assert.fail("Should have thrown IOException");
+        }catch (IOException e){
+            Assert.assertTrue(e.getCause() instanceof DoubleBitErrorException);
+        }
+    }
+
+    @Test
+    public void testSmallChunks() throws IOException {
+        Random rand = new Random();
+        for (int chunkBlocks = 1; chunkBlocks<=5; chunkBlocks++){
+            for (int length = 0; length<90; length++){
+                byte[] original = new byte[length];
+                rand.nextBytes(original);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (SecdedEncoder encoder = new SecdedEncoder(coder, Channels.newChannel(out), chunkBlocks)){
+                    encoder.write(ByteBuffer.wrap(original));
+                }
+                byte[] encoded = out.toByteArray();
+                Assert.assertEquals((coder.numBlocks(length*8)+1)*coder.getCodeBytes(),encoded.length);
+                SecdedDecoder decoder = new SecdedDecoder(coder, Channels.newChannel(new ByteArrayInputStream(encoded)),
+                        Math.max(3, chunkBlocks));
+                Assert.assertArrayEquals(original,decoder.asInputStream().readAllBytes());
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedStream() throws IOException {
+        byte[] encoded = encode(new byte[100]);
+        byte[] truncated = new byte[encoded.length-1];
+        System.arraycopy(encoded,0,truncated,0,truncated.length);
+        decode(truncated);
+    }
+
+    private byte[] encode(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream encoder = new SecdedEncoder(coder, out).asOutputStream()){
+            // write in uneven pieces to exercise partial chunks
+            int offset = 0;
+            Random rand = new Random();
+            while (offset < data.length){
+                int count = Math.min(data.length - offset, 1 + rand.nextInt(5000));
+                encoder.write(data, offset, count);
+                offset += count;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] decode(byte[] encoded) throws IOException {
+        try (InputStream decoder = new SecdedDecoder(coder, new ByteArrayInputStream(encoded)).asInputStream()){
+            return decoder.readAllBytes();
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package UI;
 
+import code.BinaryCode;
+import code.EccContainer;
 import code.HammingCoder;
-import exception.DoubleBitErrorException;
+import code.ProgressListener;
+import code.ValidationResult;
 import exception.InvalidInputFormatException;
-import exception.SingleBitErrorException;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextFormatter;
 import javafx.stage.FileChooser;
@@ -15,8 +21,12 @@ import javafx.stage.Stage;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class ViewController {
 
@@ -28,6 +38,14 @@ public class ViewController {
     private TextArea input;
     @FXML
     private TextArea output;
+    @FXML
+    private ProgressBar progress;
+    @FXML
+    private Label status;
+    @FXML
+    private Button cancelButton;
+    @FXML
+    private Button moreButton;
 
     private Stage myStage;
     private Alert alert;
@@ -38,6 +56,20 @@ public class ViewController {
     private Boolean decode;
     private String inputString;
     private final int MAX_INPUT_LENGTH = Integer.MAX_VALUE - 32;
+    // number of characters of the result appended to the output TextArea at a time
+    private final int PREVIEW_CHUNK = 1 << 20;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "coder-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private CoderTask task;
+    // full result of the last run; the output TextArea only shows its first previewEnd characters
+    private String result = "";
+    // whether result is encoded output, recorded when the task producing it finishes
+    private boolean resultEncoded;
+    private int previewEnd;
 
 
     public ViewController(){
@@ -51,6 +83,7 @@ public class ViewController {
         setupAlert();
         setupInputTextField();
         setupFileChooser();
+        setupProgress();
     }
 
     public void setStage(Stage stage) {
@@ -76,25 +109,61 @@ public class ViewController {
     }
 
     /**
-     * Invoke HammingCoder instance to encode/decode input bits when OK button is pressed.
+     * Invoke HammingCoder instance to encode/decode input bits in the background when OK button is pressed.
      * Pop up alert dialogue when detecting invalid inputs or bit corruption.
      * Display result in output TextArea after correcting single-bit corruption (if applicable).
      */
     public void run(){
+        if((task != null && task.isRunning()) || (!encode && !decode)){
+            return;
+        }
         inputString = input.getText();
-        try {
-            if (encode) {
-                output.setText(coder.encode(inputString));
-            } else if (decode) {
-                validateDecodeInput();
-                output.setText(coder.decode(inputString));
+        CoderTask current = new CoderTask(coder, encode, inputString);
+        task = current;
+        current.setOnSucceeded(event -> {
+            showResult(current.getValue(), current.encode);
+            if(!current.encode){
+                reportCorruption(current.validation);
+            }
+        });
+        current.setOnFailed(event -> {
+            if(current.getException() instanceof InvalidInputFormatException){
+                this.alert.setContentText("Input must be a binary sequence.");
+            }else{
+                this.alert.setContentText("Processing failed: " + current.getException());
             }
-        }catch (InvalidInputFormatException e){
-            this.alert.setContentText("Input must be a binary sequence.");
             this.alert.showAndWait();
+        });
+        current.setOnCancelled(event -> {
+            status.textProperty().unbind();
+            status.setText("Cancelled");
+        });
+        progress.progressProperty().bind(current.progressProperty());
+        status.textProperty().bind(current.messageProperty());
+        cancelButton.disableProperty().bind(current.runningProperty().not());
+        worker.submit(current);
+    }
+
+    /**
+     * Cancel the running encoding/decoding when Cancel button is pressed.
+     * The output TextArea keeps the previous result.
+     */
+    public void cancel(){
+        if(task != null){
+            task.cancel();
         }
     }
 
+    /**
+     * Append the next chunk of a result too large to be displayed at once to the output TextArea.
+     */
+    public void showMore(){
+        int end = (int) Math.min((long) previewEnd + PREVIEW_CHUNK, result.length());
+        output.appendText(result.substring(previewEnd, end));
+        previewEnd = end;
+        moreButton.setDisable(previewEnd == result.length());
+    }
+
     /**
      * Pop up a file-choosing window for loading a binary string
      * from a .txt file into the input TextArea
@@ -111,8 +180,30 @@ public class ViewController {
         saveOutputToFile(fileChooser.showSaveDialog(myStage));
     }
 
+    /**
+     * Pop up a file-choosing window for saving the encoded output
+     * into a packed binary .ecc container, one bit per payload bit
+     */
+    public void invokeSavePackedFile(){
+        FileChooser packedChooser = new FileChooser();
+        packedChooser.setInitialDirectory(fileChooser.getInitialDirectory());
+        packedChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("ECC containers (*.ecc)", "*.ecc"));
+        saveOutputToContainer(packedChooser.showSaveDialog(myStage));
+    }
+
     private void readInputFromFile(File file){
         try {
+            if(file != null && file.getName().endsWith(".ecc")){
+                try (EccContainer container = EccContainer.open(FileChannel.open(file.toPath(), StandardOpenOption.READ))){
+                    if(container.getCodeType() != EccContainer.CodeType.WORD){
+                        this.alert.setContentText("Only single-word containers can be loaded");
+                        this.alert.showAndWait();
+                        return;
+                    }
+                    input.setText(container.readWord().toString());
+                }
+                return;
+            }
             String inputFromFile = new String(Files.readAllBytes(Paths.get(file.getAbsolutePath())));
             input.setText(inputFromFile);
         } catch (IOException | NullPointerException e) {
@@ -127,7 +218,7 @@ public class ViewController {
         try {
             PrintWriter writer;
             writer = new PrintWriter(file);
-            writer.print(output.getText());
+            writer.print(result);
             writer.close();
         } catch (IOException | NullPointerException e) {
             this.alert.setContentText("File saving failed");
@@ -135,16 +226,37 @@ public class ViewController {
         }
     }
 
-    private void validateDecodeInput() throws InvalidInputFormatException{
-        try {
-            coder.validateCode(input.getText());
-        }catch (InvalidInputFormatException e){
-            throw e;
-        } catch (SingleBitErrorException e){
-            inputString = fixCorruptedBit(input.getText(),e.getErrorBitIndex());
-            this.alert.setContentText("Single-bit corruption detected at bit index "+e.getErrorBitIndex());
+    private void saveOutputToContainer(File file){
+        if(file == null){
+            return;
+        }
+        if(!resultEncoded || result.isEmpty()){
+            this.alert.setContentText("Only encoded output can be saved as a container");
+            this.alert.showAndWait();
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)){
+            EccContainer.writeWord(channel, new BinaryCode(result));
+        } catch (IOException | InvalidInputFormatException e) {
+            this.alert.setContentText("File saving failed");
+            this.alert.showAndWait();
+        }
+    }
+
+    private void showResult(String text, boolean encoded){
+        result = text;
+        resultEncoded = encoded;
+        previewEnd = 0;
+        output.clear();
+        showMore();
+    }
+
+    private void reportCorruption(ValidationResult validation){
+        if(validation.getStatus() == ValidationResult.Status.SINGLE_BIT_ERROR){
+            this.alert.setContentText("Single-bit corruption detected at bit index "+validation.getErrorBitIndex());
             this.alert.showAndWait();
-        } catch (DoubleBitErrorException e){
+        } else if(validation.getStatus() == ValidationResult.Status.DOUBLE_BIT_ERROR){
             this.alert.setContentText("Double-bit corruption detected");
             this.alert.showAndWait();
         }
@@ -161,17 +273,63 @@ public class ViewController {
                 change.getControlNewText().length() <= MAX_INPUT_LENGTH ? change : null));
     }
 
+    private void setupProgress(){
+        progress.setProgress(0);
+        cancelButton.setDisable(true);
+        moreButton.setDisable(true);
+    }
+
     private void setupFileChooser(){
         fileChooser = new FileChooser();
         fileChooser.setInitialDirectory(new File(System.getProperty("user.home")));
         FileChooser.ExtensionFilter extFilter = new FileChooser.ExtensionFilter("TXT files (*.txt)", "*.txt");
         fileChooser.getExtensionFilters().add(extFilter);
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("ECC containers (*.ecc)", "*.ecc"));
     }
 
-    private String fixCorruptedBit(String string, int index){
-        char[] chars = string.toCharArray();
-        chars[index] = chars[index]=='1'? '0':'1';
-        return new String(chars);
+    /**
+     * Encodes or decodes one input off the JavaFX application thread.
+     * Each stage (parsing, coding, formatting) reports progress and checks for cancellation once per chunk
+     * of the input; the final message reports the throughput.
+     */
+    private static class CoderTask extends Task<String> {
+
+        private final HammingCoder coder;
+        private final boolean encode;
+        private final String inputString;
+        private final ValidationResult validation = new ValidationResult();
+
+        CoderTask(HammingCoder coder, boolean encode, String inputString){
+            this.coder = coder;
+            this.encode = encode;
+            this.inputString = inputString;
+        }
+
+        @Override
+        protected String call() throws InvalidInputFormatException {
+            long start = System.nanoTime();
+            updateMessage("Parsing input");
+            updateProgress(0, 3);
+            BinaryCode code = new BinaryCode(inputString, stage(0));
+            updateMessage(encode ? "Encoding" : "Decoding");
+            BinaryCode coded = encode ? coder.encode(code, stage(1)) : coder.decodeAndCorrect(code, validation, stage(1));
+            updateMessage("Formatting " + coded.length() + " bits");
+            String text = coded.toString(stage(2));
+            long nanos = Math.max(System.nanoTime() - start, 1);
+            updateProgress(3, 3);
+            updateMessage(String.format("%d bits in %d ms (%.1f Mbit/s)",
+                    code.length(), nanos / 1000000, code.length() * 1000.0 / nanos));
+            return text;
+        }
+
+        /**
+         * @return listener advancing the progress bar from stage to stage + 1, cancelling once the task is cancelled
+         */
+        private ProgressListener stage(int stage){
+            return (done, total) -> {
+                updateProgress(stage + (total == 0 ? 1.0 : (double) done / total), 3);
+                return !isCancelled();
+            };
+        }
     }
-    
 }